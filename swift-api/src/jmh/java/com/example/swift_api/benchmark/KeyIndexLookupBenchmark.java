@@ -0,0 +1,87 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.service.BicCodec;
+import com.example.swift_api.service.SwiftCodeKeyIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//The snapshot's code -> row lookup: HashMap<String, SwiftCode> against BicCodec keys in a SwiftCodeKeyIndex over a
+//SwiftCode[]. Every lookup starts from a new String, like a path variable, so the HashMap pays for hashing it;
+//copyOnly is that copy alone. Run it with KeyIndexLookupBenchmarkTest.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyIndexLookupBenchmark {
+    private static final int LOOKUPS = 1 << 20;
+
+    @Param("500000")
+    public int entries;
+
+    private Map<String, SwiftCode> byCode;
+    private SwiftCode[] records;
+    private SwiftCodeKeyIndex index;
+    private char[][] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        records = new SwiftCode[entries];
+        byCode = new HashMap<>();
+        long[] keys = new long[entries];
+        for (int i = 0; i < entries; i++) {
+            records[i] = new SwiftCode(code(i), "Bank " + i, "PL", "POLAND", "Street");
+            byCode.put(records[i].getSwiftCode(), records[i]);
+            keys[i] = BicCodec.encode(records[i].getSwiftCode());
+        }
+        index = new SwiftCodeKeyIndex(keys);
+
+        //one lookup in ten is for a code that does not exist
+        lookups = new char[LOOKUPS][];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String code = code(ThreadLocalRandom.current().nextInt(entries));
+            lookups[i] = (i % 10 == 0 ? code.substring(0, 8) : code).toCharArray();
+        }
+    }
+
+    @Benchmark
+    public String copyOnly() {
+        return nextCode();
+    }
+
+    @Benchmark
+    public SwiftCode hashMap() {
+        return byCode.get(nextCode());
+    }
+
+    @Benchmark
+    public SwiftCode keyIndex() {
+        int offset = index.offsetOf(BicCodec.encode(nextCode()));
+        return offset == SwiftCodeKeyIndex.ABSENT ? null : records[offset];
+    }
+
+    private String nextCode() {
+        return new String(lookups[next++ & (LOOKUPS - 1)]);
+    }
+
+    private static String code(int i) {
+        return String.format("B%03dPLPW%03d", i / 1000 % 1000, i % 1000);
+    }
+}
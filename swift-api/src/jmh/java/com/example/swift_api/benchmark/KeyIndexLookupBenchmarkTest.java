@@ -0,0 +1,21 @@
+package com.example.swift_api.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//Runs KeyIndexLookupBenchmark under JMH in a forked JVM:
+//mvn test -Pbenchmark -Dtest=KeyIndexLookupBenchmarkTest [-Dbenchmark.entries=1000000]
+@Tag("benchmark")
+class KeyIndexLookupBenchmarkTest {
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(KeyIndexLookupBenchmark.class.getName())
+                .param("entries", System.getProperty("benchmark.entries", "500000"))
+                .build()).run();
+    }
+}
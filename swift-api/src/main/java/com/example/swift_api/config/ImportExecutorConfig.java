@@ -0,0 +1,51 @@
+package com.example.swift_api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@Profile("!reactive")
+public class ImportExecutorConfig {
+
+    //Imports run here instead of on Tomcat's request threads; a full queue rejects new jobs instead of piling them up.
+    //With spring.threads.virtual.enabled the jobs run on virtual threads, but the pool still limits how
+    //many run at once: each import holds database connections for its whole run.
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(@Value("${swift.import.executor.threads:2}") int threads,
+                                                 @Value("${swift.import.executor.queue-capacity:10}") int queueCapacity,
+                                                 Environment environment) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("swift-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("swift-import-").getVirtualThreadFactory());
+        }
+        return executor;
+    }
+
+    //Threads of the pipelined import's parse, validate and persist stages, shared by all imports. A stage blocks on
+    //its queues for the whole import, so the pool is unbounded: on virtual threads every stage gets a new one,
+    //otherwise idle platform threads are kept for a minute and reused by the next import.
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService importPipelineExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return Executors.newThreadPerTaskExecutor(
+                    new VirtualThreadTaskExecutor("swift-import-pipeline-").getVirtualThreadFactory());
+        }
+        return Executors.newCachedThreadPool(new CustomizableThreadFactory("swift-import-pipeline-"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.swift_api.config;
+
+import com.example.swift_api.service.ResponseFormat;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+//DTO responses are encoded by whichever Jackson converter matches Accept (JSON, CBOR or Smile). The controllers
+//tag them with the data set version; a CBOR or Smile body gets that format's variant of the tag, as a strong
+//ETag differs between representations.
+@ControllerAdvice
+@Profile("!reactive")
+public class ResponseFormatAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        ResponseFormat format = ResponseFormat.of(selectedContentType);
+        String etag = headers.getETag();
+        if (etag != null && format != null) {
+            String formatEtag = format.etag(etag);
+            //the conditional request check has already put the tag on the servlet response itself,
+            //setting it on the headers as well would send both
+            if (response instanceof ServletServerHttpResponse servletResponse) {
+                headers.remove(HttpHeaders.ETAG);
+                servletResponse.getServletResponse().setHeader(HttpHeaders.ETAG, formatEtag);
+            } else {
+                headers.setETag(formatEtag);
+            }
+        }
+        return body;
+    }
+}
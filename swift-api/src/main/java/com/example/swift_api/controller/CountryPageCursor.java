@@ -0,0 +1,24 @@
+package com.example.swift_api.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+//Opaque cursor of the country pages: the last SWIFT code of the page, base64url encoded. Clients pass it back as is.
+final class CountryPageCursor {
+
+    private CountryPageCursor() {
+    }
+
+    static String encode(String lastSwiftCode) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastSwiftCode.getBytes(StandardCharsets.UTF_8));
+    }
+
+    //Throws IllegalArgumentException for a cursor that was not produced by encode
+    static String decode(String cursor) {
+        String swiftCode = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (swiftCode.isEmpty() || swiftCode.length() > 11) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return swiftCode;
+    }
+}
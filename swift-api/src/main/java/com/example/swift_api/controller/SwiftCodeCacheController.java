@@ -0,0 +1,34 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.service.LookupCacheStats;
+import com.example.swift_api.service.RenderedResponseCache;
+import com.example.swift_api.service.SwiftCodeLookupService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1/swift-codes/cache")
+public class SwiftCodeCacheController {
+
+    private final SwiftCodeLookupService lookupService;
+    private final RenderedResponseCache renderCache;
+
+    public SwiftCodeCacheController(SwiftCodeLookupService lookupService, RenderedResponseCache renderCache) {
+        this.lookupService = lookupService;
+        this.renderCache = renderCache;
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<LookupCacheStats> getStats(){
+        return ResponseEntity.ok(lookupService.getStats());
+    }
+
+    @GetMapping("/rendered/stats")
+    public ResponseEntity<LookupCacheStats> getRenderedStats(){
+        return ResponseEntity.ok(renderCache.getStats());
+    }
+}
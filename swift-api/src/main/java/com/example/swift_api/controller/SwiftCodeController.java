@@ -2,57 +2,252 @@ package com.example.swift_api.controller;
 
 import com.example.swift_api.model.SwiftCode;
 import com.example.swift_api.repository.SwiftCodeRepository;
+import com.example.swift_api.service.BicValidator;
+import com.example.swift_api.service.DatasetVersion;
+import com.example.swift_api.service.HeadquartersResolver;
+import com.example.swift_api.service.RenderedResponse;
+import com.example.swift_api.service.RenderedResponseCache;
+import com.example.swift_api.service.ResponseFormat;
+import com.example.swift_api.service.SwiftCodeDetails;
+import com.example.swift_api.service.SwiftCodeLookupService;
+import com.example.swift_api.service.SwiftCodesChangedEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/v1/swift-codes")
 public class SwiftCodeController {
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 10000;
+
     private final SwiftCodeRepository swiftCodeRepository;
+    private final SwiftCodeLookupService lookupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatasetVersion datasetVersion;
+    private final RenderedResponseCache renderCache;
 
     @Autowired
-    public SwiftCodeController(SwiftCodeRepository swiftCodeRepository){
+    public SwiftCodeController(SwiftCodeRepository swiftCodeRepository, SwiftCodeLookupService lookupService,
+                               ApplicationEventPublisher eventPublisher, DatasetVersion datasetVersion,
+                               RenderedResponseCache renderCache){
         this.swiftCodeRepository = swiftCodeRepository;
+        this.lookupService = lookupService;
+        this.eventPublisher = eventPublisher;
+        this.datasetVersion = datasetVersion;
+        this.renderCache = renderCache;
     }
 
     @GetMapping("/{swiftCode}")
-    public ResponseEntity<?> getSwiftCodesDetails(@PathVariable String swiftCode){
-        if (swiftCode == null || swiftCode.length() < 8 || swiftCode.length() > 11) {
+    public ResponseEntity<?> getSwiftCodesDetails(@PathVariable String swiftCode,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                  String ifNoneMatch,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                  String accept,
+                                                  @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                  String acceptEncoding){
+        if (!isValidSwiftCodeFormat(swiftCode)) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(new MessageResponse("Invalid SWIFT code format"));
         }
 
-        Optional<SwiftCode> swiftCodeOptional = swiftCodeRepository.findById(swiftCode);
+        //read before the data: a change after this point gives the next request another tag
+        String etag = datasetVersion.etag();
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+        String matchedTag = DatasetVersion.match(ifNoneMatch, representationTags(etag, format, acceptEncoding));
+        if(matchedTag != null){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(matchedTag).build();
+        }
+
+        if(renderCache.isEnabled()){
+            RenderedResponse rendered = renderCache.get(RenderedResponseCache.codeKey(swiftCode), etag, format,
+                    () -> lookupService.findDetails(swiftCode).map(SwiftCodeController::toResponse).orElse(null));
+            if(rendered == null){
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new MessageResponse("SWIFT code not found"));
+            }
+            ResponseEntity<byte[]> response = renderedResponse(rendered, etag, acceptEncoding);
+            return notModifiedIfAny(ifNoneMatch, response, response.getHeaders().getETag());
+        }
+
+        Optional<SwiftCodeDetails> details = lookupService.findDetails(swiftCode);
 
-        if(swiftCodeOptional.isEmpty()){
+        if(details.isEmpty()){
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new MessageResponse("SWIFT code not found"));
         }
 
-        SwiftCode swiftCodeData = swiftCodeOptional.get();
+        return notModifiedIfAny(ifNoneMatch, ResponseEntity.ok().eTag(etag).body(toResponse(details.get())),
+                format.etag(etag));
+    }
+
+    //Many codes in one call: each entry is checked like GET /{swiftCode} and answered in the same shape
+    @PostMapping("/batch-lookup")
+    public ResponseEntity<?> batchLookup(@Valid @RequestBody BatchLookupRequest request){
+        Set<String> swiftCodes = new LinkedHashSet<>();
+        List<String> invalid = new ArrayList<>();
+        for(String swiftCode : request.getSwiftCodes()){
+            if(isValidSwiftCodeFormat(swiftCode)){
+                swiftCodes.add(swiftCode);
+            }
+            else{
+                invalid.add(swiftCode);
+            }
+        }
+
+        Map<String, SwiftCodeDetails> details = lookupService.findAllDetails(swiftCodes);
+
+        List<Object> found = new ArrayList<>();
+        List<String> notFound = new ArrayList<>();
+        for(String swiftCode : swiftCodes){
+            SwiftCodeDetails codeDetails = details.get(swiftCode);
+            if(codeDetails == null){
+                notFound.add(swiftCode);
+            }
+            else{
+                found.add(toResponse(codeDetails));
+            }
+        }
+        return ResponseEntity.ok(new BatchLookupResponse(found, notFound, invalid));
+    }
+
+    private static CountrySwiftCodeResponse countryResponse(String countryISO2code, List<SwiftCode> swiftCodes){
+        if(swiftCodes.isEmpty()){
+            return null;
+        }
+        return new CountrySwiftCodeResponse(countryISO2code.toUpperCase(), swiftCodes.get(0).getCountryName(), swiftCodes);
+    }
+
+    //The pre-rendered bytes go out as they are, gzipped ones to clients that accept gzip
+    private static ResponseEntity<byte[]> renderedResponse(RenderedResponse rendered, String etag, String acceptEncoding){
+        String formatEtag = rendered.getFormat().etag(etag);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(rendered.getFormat().getMediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if(rendered.getGzip() != null && acceptsGzip(acceptEncoding)){
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .eTag(DatasetVersion.variant(formatEtag, "gzip"))
+                    .body(rendered.getGzip());
+        }
+        return response.eTag(formatEtag).body(rendered.getBody());
+    }
+
+    //The tags this request could be answered with at the data version etag: the negotiated format's, and its
+    //gzipped variant when the client accepts gzip and rendered bodies are kept gzipped
+    private List<String> representationTags(String etag, ResponseFormat format, String acceptEncoding){
+        String formatEtag = format.etag(etag);
+        if(renderCache.isEnabled() && acceptsGzip(acceptEncoding)){
+            return List.of(formatEtag, DatasetVersion.variant(formatEtag, "gzip"));
+        }
+        return List.of(formatEtag);
+    }
+
+    //If-None-Match: * matches any current representation, so it turns a found resource (tagged tag) into a 304;
+    //anything else is answered as it is
+    private static ResponseEntity<?> notModifiedIfAny(String ifNoneMatch, ResponseEntity<?> response, String tag){
+        if(response.getStatusCode() != HttpStatus.OK || !DatasetVersion.matchesAny(ifNoneMatch)){
+            return response;
+        }
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding){
+        if(acceptEncoding == null){
+            return false;
+        }
+        for(String coding : acceptEncoding.split(",")){
+            String[] parts = coding.trim().split(";");
+            if(parts[0].trim().equalsIgnoreCase("gzip")){
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    //Structure only (length, characters, country, branch), checked before any repository call
+    static boolean isValidSwiftCodeFormat(String swiftCode){
+        return BicValidator.isValid(swiftCode);
+    }
+
+    //An assigned ISO 3166 alpha-2 code in either case, checked before any repository call
+    static boolean isValidCountryFormat(String countryISO2code){
+        return countryISO2code != null && BicValidator.isCountry(countryISO2code.toUpperCase(Locale.ROOT));
+    }
+
+    static Object toResponse(SwiftCodeDetails details){
+        SwiftCode swiftCodeData = details.getSwiftCode();
         if(swiftCodeData.isHeadquarter()){
-            List<SwiftCode> branches = swiftCodeRepository.findByHqSwiftCode(swiftCodeData.getSwiftCode());
-            return ResponseEntity.ok(new HeadquartersResponse(swiftCodeData, branches));
+            return new HeadquartersResponse(swiftCodeData, details.getBranches());
         }
         else{
-            return ResponseEntity.ok(new BranchResponse(swiftCodeData));
+            return new BranchResponse(swiftCodeData);
         }
     }
 
     @GetMapping("/country/{countryISO2code}")
-    public ResponseEntity<?> getSwiftCodeByCountry(@PathVariable String countryISO2code){
-        List<SwiftCode> swiftCodes = swiftCodeRepository.findByCountryISO2IgnoreCase(countryISO2code);
+    public ResponseEntity<?> getSwiftCodeByCountry(@PathVariable String countryISO2code,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                   String ifNoneMatch,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                   String accept,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                   String acceptEncoding){
+        if(!isValidCountryFormat(countryISO2code)){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("Invalid country ISO2 code format"));
+        }
+
+        String etag = datasetVersion.etag();
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+        boolean paged = limit != null || cursor != null;
+        //pages are not rendered ahead, so never sent gzipped
+        String matchedTag = DatasetVersion.match(ifNoneMatch,
+                representationTags(etag, format, paged ? null : acceptEncoding));
+        if(matchedTag != null){
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(matchedTag).build();
+        }
+        if(paged){
+            return notModifiedIfAny(ifNoneMatch,
+                    getSwiftCodePage(countryISO2code, limit == null ? DEFAULT_PAGE_SIZE : limit, cursor, etag),
+                    format.etag(etag));
+        }
+
+        if(renderCache.isEnabled()){
+            RenderedResponse rendered = renderCache.get(RenderedResponseCache.countryKey(countryISO2code), etag, format,
+                    () -> countryResponse(countryISO2code, lookupService.findByCountry(countryISO2code)));
+            if(rendered == null){
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new MessageResponse("No SWIFT codes found for the given country"));
+            }
+            ResponseEntity<byte[]> response = renderedResponse(rendered, etag, acceptEncoding);
+            return notModifiedIfAny(ifNoneMatch, response, response.getHeaders().getETag());
+        }
+
+        List<SwiftCode> swiftCodes = lookupService.findByCountry(countryISO2code);
 
         if(swiftCodes.isEmpty()){
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -61,10 +256,47 @@ public class SwiftCodeController {
 
         String countryName = swiftCodes.get(0).getCountryName();
 
-        return ResponseEntity.ok(new CountrySwiftCodeResponse(countryISO2code.toUpperCase(), countryName, swiftCodes));
+        return notModifiedIfAny(ifNoneMatch, ResponseEntity.ok().eTag(etag)
+                .body(new CountrySwiftCodeResponse(countryISO2code.toUpperCase(), countryName, swiftCodes)),
+                format.etag(etag));
+    }
+
+    //Keyset pagination: each page continues after the last code of the previous one, so deep pages cost the same
+    //as the first and rows added or removed meanwhile do not shift the pages
+    private ResponseEntity<?> getSwiftCodePage(String countryISO2code, int limit, String cursor, String etag){
+        if(limit < 1 || limit > MAX_PAGE_SIZE){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new MessageResponse("limit must be between 1 and " + MAX_PAGE_SIZE));
+        }
+        String afterSwiftCode = "";
+        if(cursor != null){
+            try {
+                afterSwiftCode = CountryPageCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new MessageResponse("Invalid cursor"));
+            }
+        }
+
+        //one row more than the page tells whether there is a next page
+        List<SwiftCode> swiftCodes = lookupService.findCountryPage(countryISO2code, afterSwiftCode, limit + 1);
+        if(swiftCodes.isEmpty() && cursor == null){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new MessageResponse("No SWIFT codes found for the given country"));
+        }
+
+        String nextCursor = null;
+        if(swiftCodes.size() > limit){
+            swiftCodes = swiftCodes.subList(0, limit);
+            nextCursor = CountryPageCursor.encode(swiftCodes.get(limit - 1).getSwiftCode());
+        }
+        String countryName = swiftCodes.isEmpty() ? null : swiftCodes.get(0).getCountryName();
+
+        return ResponseEntity.ok().eTag(etag).body(new CountrySwiftCodeResponse(countryISO2code.toUpperCase(),
+                countryName, swiftCodes, nextCursor));
     }
 
     @PostMapping
+    @Transactional
     public ResponseEntity<?> addSwiftCode(@Valid @RequestBody SwiftCodeRequest request){
         Optional<SwiftCode> existingSwiftCode = swiftCodeRepository.findById(request.getSwiftCode());
 
@@ -80,13 +312,28 @@ public class SwiftCodeController {
                 request.getAddress()
         );
 
+        String bankPrefix = HeadquartersResolver.bankPrefix(newSwiftCode.getSwiftCode());
+        if(bankPrefix != null && !newSwiftCode.isHeadquarter()){
+            List<String> hqCodes = swiftCodeRepository.findHeadquarterCodes(List.of(bankPrefix + "XXX"));
+            if(!hqCodes.isEmpty()){
+                newSwiftCode.setHqSwiftCode(hqCodes.get(0));
+            }
+        }
+
         swiftCodeRepository.save(newSwiftCode);
+
+        //branches stored before their headquarters was added get linked to it now
+        if(bankPrefix != null && newSwiftCode.isHeadquarter()){
+            swiftCodeRepository.linkOrphanBranches(newSwiftCode.getSwiftCode(), bankPrefix);
+        }
+        eventPublisher.publishEvent(SwiftCodesChangedEvent.of(newSwiftCode.getSwiftCode()));
         return ResponseEntity.status(HttpStatus.CREATED).body(new MessageResponse("SWIFT code added successfully"));
     }
 
     @DeleteMapping("/{swiftCode}")
     @Transactional
     public ResponseEntity<?> deleteSwiftCode(@PathVariable String swiftCode){
+        //No format check: rows stored before codes were validated (lower case, 9 characters) must stay deletable
         Optional<SwiftCode> existingSwiftCode = swiftCodeRepository.findById(swiftCode);
 
         if(existingSwiftCode.isEmpty()){
@@ -94,6 +341,7 @@ public class SwiftCodeController {
         }
 
         swiftCodeRepository.deleteById(swiftCode);
+        eventPublisher.publishEvent(SwiftCodesChangedEvent.of(swiftCode));
         return ResponseEntity.ok(new MessageResponse("SWIFT code deleted successfully"));
     }
 
@@ -101,11 +349,20 @@ public class SwiftCodeController {
         private String countryISO2;
         private String countryName;
         private List<SwiftCodeResponse> swiftCodes;
+        //only on paged responses, absent on the last page
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String nextCursor;
 
         public CountrySwiftCodeResponse(String countryISO2, String countryName, List<SwiftCode> swiftCodeList) {
+            this(countryISO2, countryName, swiftCodeList, null);
+        }
+
+        public CountrySwiftCodeResponse(String countryISO2, String countryName, List<SwiftCode> swiftCodeList,
+                                        String nextCursor) {
             this.countryISO2 = countryISO2;
             this.countryName = countryName;
             this.swiftCodes = swiftCodeList.stream().map(SwiftCodeResponse::new).collect(Collectors.toList());
+            this.nextCursor = nextCursor;
         }
 
         public CountrySwiftCodeResponse(){}
@@ -122,6 +379,10 @@ public class SwiftCodeController {
             return swiftCodes;
         }
 
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
         public void setCountryISO2(String countryISO2) {
             this.countryISO2 = countryISO2;
         }
@@ -133,12 +394,16 @@ public class SwiftCodeController {
         public void setSwiftCodes(List<SwiftCodeResponse> swiftCodes) {
             this.swiftCodes = swiftCodes;
         }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
     }
 
     public static class SwiftCodeRequest{
 
         @NotBlank(message = "SWIFT code is required")
-        @Size(min = 8, max = 11, message = "SWIFT code must be between 8 and 11 characters")
+        @ValidSwiftCode
         private String swiftCode;
 
         @NotBlank(message = "Address is required")
@@ -195,6 +460,45 @@ public class SwiftCodeController {
         }
     }
 
+    public static class BatchLookupRequest{
+
+        @NotEmpty(message = "SWIFT codes are required")
+        @Size(max = MAX_BATCH_SIZE, message = "At most " + MAX_BATCH_SIZE + " SWIFT codes per request")
+        private List<String> swiftCodes;
+
+        public List<String> getSwiftCodes() {
+            return swiftCodes;
+        }
+
+        public void setSwiftCodes(List<String> swiftCodes) {
+            this.swiftCodes = swiftCodes;
+        }
+    }
+
+    static class BatchLookupResponse{
+        private final List<Object> found;
+        private final List<String> notFound;
+        private final List<String> invalid;
+
+        public BatchLookupResponse(List<Object> found, List<String> notFound, List<String> invalid){
+            this.found = found;
+            this.notFound = notFound;
+            this.invalid = invalid;
+        }
+
+        public List<Object> getFound() {
+            return found;
+        }
+
+        public List<String> getNotFound() {
+            return notFound;
+        }
+
+        public List<String> getInvalid() {
+            return invalid;
+        }
+    }
+
     static class MessageResponse{
         private String message;
 
@@ -1,31 +1,63 @@
 package com.example.swift_api.controller;
 
 
-import com.example.swift_api.service.SwiftCodeImportService;
+import com.example.swift_api.service.ImportJob;
+import com.example.swift_api.service.ImportJobService;
+import com.example.swift_api.service.ImportJobStatus;
+import com.example.swift_api.service.ImportOptions;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
+@Profile("!reactive")
 @RequestMapping("/v1/swift-codes/import")
 public class SwiftCodeImportController {
 
-    private final SwiftCodeImportService importService;
+    private final ImportJobService importJobService;
 
-    public SwiftCodeImportController(SwiftCodeImportService importService) {
-        this.importService = importService;
+    public SwiftCodeImportController(ImportJobService importJobService) {
+        this.importJobService = importJobService;
     }
 
     @PostMapping
-    public ResponseEntity<String> uploadFile(@RequestParam("file")MultipartFile file){
+    public ResponseEntity<?> uploadFile(@RequestParam("file")MultipartFile file, ImportOptions options){
         if(file.isEmpty()){
             return ResponseEntity.badRequest().body("Please upload valid excel file");
         }
-        importService.importSwiftCodes(file);
-        return ResponseEntity.ok("File uploaded and processed successfully");
+        ImportJob job;
+        try {
+            job = importJobService.submit(file, options);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new SwiftCodeController.MessageResponse("Too many imports in progress, try again later"));
+        }
+        //an identical file that was already applied is answered right away with the earlier result
+        return ResponseEntity.status(job.getStatus() == ImportJobStatus.SKIPPED ? HttpStatus.OK : HttpStatus.ACCEPTED)
+                .location(URI.create("/v1/swift-codes/import/" + job.getId()))
+                .body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getImportJob(@PathVariable String jobId){
+        Optional<ImportJob> job = importJobService.getJob(jobId);
+
+        if(job.isEmpty()){
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new SwiftCodeController.MessageResponse("Import job not found"));
+        }
+        return ResponseEntity.ok(job.get());
     }
 
 
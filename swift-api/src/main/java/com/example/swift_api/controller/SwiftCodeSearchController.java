@@ -0,0 +1,112 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.service.BankMatch;
+import com.example.swift_api.service.BankNameSearchService;
+import com.example.swift_api.service.SwiftCodePrefixIndex;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1/swift-codes")
+public class SwiftCodeSearchController {
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 1000;
+
+    static final int DEFAULT_BANK_LIMIT = 10;
+    static final int MAX_BANK_LIMIT = 100;
+
+    private final SwiftCodePrefixIndex prefixIndex;
+    private final BankNameSearchService bankNameSearchService;
+
+    public SwiftCodeSearchController(SwiftCodePrefixIndex prefixIndex, BankNameSearchService bankNameSearchService) {
+        this.prefixIndex = prefixIndex;
+        this.bankNameSearchService = bankNameSearchService;
+    }
+
+    //Codes starting with a partial BIC, answered from the in-memory index
+    @GetMapping("/search")
+    public ResponseEntity<?> searchByPrefix(@RequestParam String prefix,
+                                            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit){
+        if(prefix.isBlank() || prefix.length() > 11){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new SwiftCodeController.MessageResponse("prefix must be 1 to 11 characters"));
+        }
+        if(limit < 1 || limit > MAX_LIMIT){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new SwiftCodeController.MessageResponse("limit must be between 1 and " + MAX_LIMIT));
+        }
+
+        //one more than asked tells whether there are further matches
+        List<String> matches = prefixIndex.search(prefix, limit + 1);
+        boolean hasMore = matches.size() > limit;
+        //echoed the way the index normalised it, whatever the default locale
+        return ResponseEntity.ok(new SearchResponse(prefix.toUpperCase(Locale.ROOT),
+                hasMore ? matches.subList(0, limit) : matches, hasMore));
+    }
+
+    //Banks by name, tolerant of typos and word order, best matches first
+    @GetMapping("/banks/search")
+    public ResponseEntity<?> searchBanks(@RequestParam String name,
+                                         @RequestParam(defaultValue = "" + DEFAULT_BANK_LIMIT) int limit){
+        if(name.isBlank() || name.length() > 200){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new SwiftCodeController.MessageResponse("name must be 1 to 200 characters"));
+        }
+        if(limit < 1 || limit > MAX_BANK_LIMIT){
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new SwiftCodeController.MessageResponse("limit must be between 1 and " + MAX_BANK_LIMIT));
+        }
+        return ResponseEntity.ok(new BankSearchResponse(name, bankNameSearchService.search(name, limit)));
+    }
+
+    static class BankSearchResponse{
+        private final String name;
+        private final List<BankMatch> banks;
+
+        public BankSearchResponse(String name, List<BankMatch> banks){
+            this.name = name;
+            this.banks = banks;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<BankMatch> getBanks() {
+            return banks;
+        }
+    }
+
+    static class SearchResponse{
+        private final String prefix;
+        private final List<String> swiftCodes;
+        private final boolean hasMore;
+
+        public SearchResponse(String prefix, List<String> swiftCodes, boolean hasMore){
+            this.prefix = prefix;
+            this.swiftCodes = swiftCodes;
+            this.hasMore = hasMore;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+
+        public List<String> getSwiftCodes() {
+            return swiftCodes;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.service.ResponseFormat;
+import com.example.swift_api.service.SwiftCodeStreamService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Streaming variants of the listing endpoints for batch consumers: the document (JSON, or CBOR / Smile when
+//asked for) is written row by row while the rows
+//are read, so neither the rows nor the response are held in memory as a whole.
+@RestController
+@Profile("!reactive")
+@RequestMapping("/v1/swift-codes")
+public class SwiftCodeStreamController {
+
+    private final SwiftCodeStreamService streamService;
+    private final Map<ResponseFormat, ObjectMapper> mappers;
+
+    public SwiftCodeStreamController(SwiftCodeStreamService streamService, ObjectMapper objectMapper) {
+        this.streamService = streamService;
+        this.mappers = ResponseFormat.mappers(objectMapper);
+    }
+
+    //Same document as GET /country/{countryISO2code}
+    @GetMapping("/country/{countryISO2code}/stream")
+    public ResponseEntity<StreamingResponseBody> streamSwiftCodesByCountry(@PathVariable String countryISO2code,
+                                                                           @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                                           String accept){
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+        ObjectMapper mapper = mappers.get(format);
+        //the handler only streams ResponseEntity<StreamingResponseBody>, so the error bodies are written the same way
+        if(!SwiftCodeController.isValidCountryFormat(countryISO2code)){
+            SwiftCodeController.MessageResponse message =
+                    new SwiftCodeController.MessageResponse("Invalid country ISO2 code format");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(format.getMediaType())
+                    .body(out -> mapper.writeValue(out, message));
+        }
+        if(!streamService.hasCountry(countryISO2code)){
+            SwiftCodeController.MessageResponse message =
+                    new SwiftCodeController.MessageResponse("No SWIFT codes found for the given country");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(format.getMediaType())
+                    .body(out -> mapper.writeValue(out, message));
+        }
+
+        StreamingResponseBody body = out -> writeCountry(countryISO2code, mapper, out);
+        return ResponseEntity.ok().contentType(format.getMediaType()).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    //The whole directory as {"swiftCodes": [...]}, each code with all its fields
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllSwiftCodes(@RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                                     String accept){
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+        ObjectMapper mapper = mappers.get(format);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                generator.writeStartObject();
+                generator.writeArrayFieldStart("swiftCodes");
+                streamService.forEachCode(row -> generator.writeObject(new SwiftCodeController.BranchResponse(row)));
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(format.getMediaType()).varyBy(HttpHeaders.ACCEPT).body(body);
+    }
+
+    private void writeCountry(String countryISO2code, ObjectMapper mapper, OutputStream out) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("countryISO2", countryISO2code.toUpperCase());
+            //the name comes from the first row; a country emptied after the check still gets the whole document
+            AtomicBoolean opened = new AtomicBoolean();
+            streamService.forEachInCountry(countryISO2code, row -> {
+                if(!opened.getAndSet(true)){
+                    writeOpening(generator, row.getCountryName());
+                }
+                generator.writeObject(new SwiftCodeController.SwiftCodeResponse(row));
+            });
+            if(!opened.get()){
+                writeOpening(generator, null);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeOpening(JsonGenerator generator, String countryName) throws IOException {
+        generator.writeStringField("countryName", countryName);
+        generator.writeArrayFieldStart("swiftCodes");
+    }
+}
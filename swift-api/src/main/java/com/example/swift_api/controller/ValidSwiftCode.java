@@ -0,0 +1,31 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.service.BicValidator;
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//A structurally valid BIC (see BicValidator); null passes, @NotBlank reports a missing code
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = ValidSwiftCode.Validator.class)
+public @interface ValidSwiftCode {
+    String message() default "Invalid SWIFT code format";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<ValidSwiftCode, String> {
+        @Override
+        public boolean isValid(String value, ConstraintValidatorContext context) {
+            return value == null || value.isEmpty() || BicValidator.isValid(value);
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.example.swift_api.model;
 
 import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
 
 import java.util.List;
 
 @Entity
 @Table(name = "swift_codes")
-public class SwiftCode {
+public class SwiftCode implements Persistable<String> {
 
     @Id
     private String swiftCode;
@@ -29,6 +30,10 @@ public class SwiftCode {
     @Column(name = "hq_swift_code")
     private String hqSwiftCode;
 
+    //The id is assigned, so tell Spring Data when to persist instead of merging (which SELECTs first)
+    @Transient
+    private boolean isNew = true;
+
     public SwiftCode() {}
 
     public SwiftCode(String swiftCode, String bankName, String countryISO2,  String countryName, String address){
@@ -40,6 +45,19 @@ public class SwiftCode {
         this.isHeadquarter = swiftCode.endsWith("XXX");
     }
 
+    //For the read queries' constructor expressions: the copy is not managed by the persistence context
+    public SwiftCode(String swiftCode, String bankName, String countryISO2, String countryName, String address,
+                     boolean isHeadquarter, String hqSwiftCode){
+        this.swiftCode = swiftCode;
+        this.bankName = bankName;
+        this.countryISO2 = countryISO2;
+        this.countryName = countryName;
+        this.address = address;
+        this.isHeadquarter = isHeadquarter;
+        this.hqSwiftCode = hqSwiftCode;
+        this.isNew = false;
+    }
+
     public String getBankName() {
         return bankName;
     }
@@ -96,4 +114,20 @@ public class SwiftCode {
         this.hqSwiftCode = hqSwiftCode;
     }
 
+    @Override
+    public String getId() {
+        return swiftCode;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
 }
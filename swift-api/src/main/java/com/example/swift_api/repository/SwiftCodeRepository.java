@@ -1,17 +1,77 @@
 package com.example.swift_api.repository;
 
 import com.example.swift_api.model.SwiftCode;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SwiftCodeRepository extends JpaRepository<SwiftCode, String> {
+    //Select list of the read queries below: the rows come back as plain copies built by a constructor expression,
+    //so Hibernate neither registers them in the persistence context nor keeps dirty checking snapshots
+    String READ_ROW = "new com.example.swift_api.model.SwiftCode(s.swiftCode, s.bankName, s.countryISO2, " +
+            "s.countryName, s.address, s.isHeadquarter, s.hqSwiftCode)";
+
     //SELECT * FROM swift_codes WHERE hq_swift_code = :hqSwiftCode;
     List<SwiftCode> findByHqSwiftCode(String hqSwiftCode);
 
-    //SELECT * FROM swift_codes WHERE UPPER(countryISO2) = UPPER(:countryISO2);
-    List<SwiftCode> findByCountryISO2IgnoreCase(String countryISO2);
+    //SELECT * FROM swift_codes WHERE swift_code = :swiftCode UNION ALL
+    //SELECT * FROM swift_codes WHERE hq_swift_code = :swiftCode;
+    //the code and, when it is a headquarters, its branches in one round trip (read rows). Written as a union, not
+    //as code OR hq_swift_code, so each half is an index lookup on databases that do not combine indexes for an OR.
+    @Query("SELECT " + READ_ROW + " FROM SwiftCode s WHERE s.swiftCode = :swiftCode " +
+            "UNION ALL SELECT " + READ_ROW + " FROM SwiftCode s WHERE s.hqSwiftCode = :swiftCode")
+    List<SwiftCode> findWithBranches(@Param("swiftCode") String swiftCode);
+
+    //Batch form of findWithBranches (read rows). A requested branch of a requested headquarters comes twice.
+    @Query("SELECT " + READ_ROW + " FROM SwiftCode s WHERE s.swiftCode IN :swiftCodes " +
+            "UNION ALL SELECT " + READ_ROW + " FROM SwiftCode s WHERE s.hqSwiftCode IN :swiftCodes")
+    List<SwiftCode> findAllWithBranches(@Param("swiftCodes") Collection<String> swiftCodes);
+
+    //SELECT * FROM swift_codes WHERE UPPER(countryISO2) = UPPER(:countryISO2) ORDER BY swift_code; (read rows)
+    //written out so the predicate stays the exact expression of idx_swift_codes_country_code
+    @Query("SELECT " + READ_ROW + " FROM SwiftCode s WHERE upper(s.countryISO2) = upper(:countryISO2) ORDER BY s.swiftCode")
+    List<SwiftCode> findByCountryISO2IgnoreCase(@Param("countryISO2") String countryISO2);
+
+    //SELECT * FROM swift_codes WHERE UPPER(countryISO2) = UPPER(:countryISO2) AND swift_code > :afterSwiftCode
+    //ORDER BY swift_code LIMIT :limit; a range scan on idx_swift_codes_country_code, no OFFSET (read rows)
+    //Also the chunks of the streaming endpoints: each page is its own short read-only transaction, so no
+    //connection is held while a page is written to a slow client
+    @Transactional(readOnly = true)
+    @Query("SELECT " + READ_ROW + " FROM SwiftCode s WHERE upper(s.countryISO2) = upper(:countryISO2) " +
+            "AND s.swiftCode > :afterSwiftCode ORDER BY s.swiftCode")
+    List<SwiftCode> findCountryPage(@Param("countryISO2") String countryISO2,
+                                    @Param("afterSwiftCode") String afterSwiftCode, Limit limit);
+
+    //SELECT * FROM swift_codes WHERE swift_code > :afterSwiftCode ORDER BY swift_code LIMIT :limit;
+    //keyset pages of the whole directory on the primary key index, read like findCountryPage (read rows)
+    @Transactional(readOnly = true)
+    @Query("SELECT " + READ_ROW + " FROM SwiftCode s WHERE s.swiftCode > :afterSwiftCode ORDER BY s.swiftCode")
+    List<SwiftCode> findPage(@Param("afterSwiftCode") String afterSwiftCode, Limit limit);
+
+    boolean existsByCountryISO2IgnoreCase(String countryISO2);
+
+    //SELECT swift_code FROM swift_codes ORDER BY swift_code; answered from the primary key index
+    @Query("SELECT s.swiftCode FROM SwiftCode s ORDER BY s.swiftCode")
+    List<String> findAllSwiftCodes();
+
+    //SELECT swift_code FROM swift_codes WHERE swift_code IN (:swiftCodes) AND is_headquarter = true;
+    @Query("SELECT s.swiftCode FROM SwiftCode s WHERE s.swiftCode IN :swiftCodes AND s.isHeadquarter = true")
+    List<String> findHeadquarterCodes(@Param("swiftCodes") Collection<String> swiftCodes);
+
+    //substring(swift_code, 1, 8) is the expression of idx_swift_codes_bank_prefix, keep it as it is. Native SQL:
+    //Hibernate renders the JPQL substring() as substr() on PostgreSQL, which the index does not match.
+    @Modifying
+    @Query(value = "UPDATE swift_codes SET hq_swift_code = :hqSwiftCode " +
+            "WHERE substring(swift_code, 1, 8) = :bankPrefix AND is_headquarter = false AND hq_swift_code IS NULL",
+            nativeQuery = true)
+    int linkOrphanBranches(@Param("hqSwiftCode") String hqSwiftCode, @Param("bankPrefix") String bankPrefix);
 
 }
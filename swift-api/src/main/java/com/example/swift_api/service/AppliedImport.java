@@ -0,0 +1,53 @@
+package com.example.swift_api.service;
+
+import java.time.Instant;
+
+//A completed import as kept by the AppliedImportRegistry
+public class AppliedImport {
+    private final String digest;
+    private final String settings;
+    private final String jobId;
+    private final String fileName;
+    private final long rowsParsed;
+    private final long rowsPersisted;
+    private final Instant appliedAt;
+
+    public AppliedImport(String digest, String settings, String jobId, String fileName, long rowsParsed,
+                         long rowsPersisted, Instant appliedAt) {
+        this.digest = digest;
+        this.settings = settings;
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.rowsParsed = rowsParsed;
+        this.rowsPersisted = rowsPersisted;
+        this.appliedAt = appliedAt;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public String getSettings() {
+        return settings;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted;
+    }
+
+    public Instant getAppliedAt() {
+        return appliedAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.swift_api.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+//Content digests of the most recent completed imports, with the options they ran with. Re-applying a file is only a
+//no-op with the same options and while nothing else has written to swift_codes since, so each entry remembers the
+//data generation it left behind and only matches while that generation is still current.
+@Component
+@Profile("!reactive")
+public class AppliedImportRegistry {
+    private final int capacity;
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private long generation;
+
+    public AppliedImportRegistry(@Value("${swift.import.registry.size:50}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public synchronized Optional<AppliedImport> findCurrent(String digest, String settings) {
+        for (Entry entry : entries) {
+            if (entry.generation == generation && entry.applied.getDigest().equals(digest)
+                    && entry.applied.getSettings().equals(settings)) {
+                return Optional.of(entry.applied);
+            }
+        }
+        return Optional.empty();
+    }
+
+    //Newest first
+    public synchronized List<AppliedImport> getEntries() {
+        return entries.stream().map(entry -> entry.applied).toList();
+    }
+
+    synchronized long generation() {
+        return generation;
+    }
+
+    //startGeneration is read before the import started; the import's own change event moves it on by one, any
+    //further change means another write interleaved and the entry is recorded as already outdated
+    synchronized void record(AppliedImport applied, long startGeneration) {
+        long entryGeneration = generation == startGeneration + 1 ? generation : -1;
+        entries.addFirst(new Entry(applied, entryGeneration));
+        while (entries.size() > capacity) {
+            entries.removeLast();
+        }
+    }
+
+    @EventListener
+    public synchronized void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        generation++;
+    }
+
+    private static final class Entry {
+        final AppliedImport applied;
+        final long generation;
+
+        Entry(AppliedImport applied, long generation) {
+            this.applied = applied;
+            this.generation = generation;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.swift_api.service;
+
+import java.util.List;
+
+//One bank name found by BankNameIndex, with the codes carrying it
+public class BankMatch {
+    private final String bankName;
+    private final double score;
+    private final double similarity;
+    private final List<String> swiftCodes;
+
+    public BankMatch(String bankName, double score, double similarity, List<String> swiftCodes) {
+        this.bankName = bankName;
+        this.score = score;
+        this.similarity = similarity;
+        this.swiftCodes = swiftCodes;
+    }
+
+    public String getBankName() {
+        return bankName;
+    }
+
+    //Share of the query's trigrams found in the name, 1.0 when every word of the query is in it
+    public double getScore() {
+        return score;
+    }
+
+    //Trigrams in common over trigrams in either, lower for names with many words besides the query
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    public List<String> getSwiftCodes() {
+        return swiftCodes;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.swift_api.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+//Trigram inverted index over bank names. Names are lower-cased and split into words, and every word is padded
+//like pg_trgm ("  deutsche ") before taking its trigrams, so typos only cost a few trigrams and word order does
+//not matter. Each distinct name is one entry listing the codes that carry it.
+//Not thread-safe, BankNameSearchService guards it.
+public final class BankNameIndex {
+    //share of the query's trigrams a name must contain to match
+    private static final double MIN_COVERAGE = 0.5;
+
+    private final Map<String, Bank> banksByKey = new HashMap<>();
+    private final List<Bank> banks = new ArrayList<>();
+    private final Map<String, Bank> bankByCode = new HashMap<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+
+    public void add(String swiftCode, String bankName) {
+        remove(swiftCode);
+        String key = normalize(bankName);
+        if (key.isEmpty()) return;
+
+        Bank bank = banksByKey.get(key);
+        if (bank == null) {
+            bank = new Bank(banks.size(), bankName, trigrams(key).size());
+            banks.add(bank);
+            banksByKey.put(key, bank);
+            for (String trigram : trigrams(key)) {
+                postings.computeIfAbsent(trigram, t -> new Postings()).add(bank.id);
+            }
+        }
+        bank.swiftCodes.add(swiftCode);
+        bankByCode.put(swiftCode, bank);
+    }
+
+    //A name without codes stays in the postings and is skipped by search until the index is rebuilt
+    public void remove(String swiftCode) {
+        Bank bank = bankByCode.remove(swiftCode);
+        if (bank != null) {
+            bank.swiftCodes.remove(swiftCode);
+        }
+    }
+
+    //Best matches first: by the share of the query found in the name, then by trigram similarity of the two
+    public List<BankMatch> search(String query, int limit) {
+        Set<String> queryTrigrams = trigrams(normalize(query));
+        if (queryTrigrams.isEmpty()) return List.of();
+
+        //the postings of the query's trigrams, sorted together: each run of one id is a name and its length the
+        //number of trigrams it shares with the query. Costs the postings touched, not the size of the index.
+        Postings touched = new Postings();
+        for (String trigram : queryTrigrams) {
+            Postings ids = postings.get(trigram);
+            if (ids != null) {
+                touched.addAll(ids);
+            }
+        }
+        Arrays.sort(touched.ids, 0, touched.size);
+
+        //only the best `limit` candidates are kept, the worst of them on top of the heap; common words like "bank"
+        //touch most names, so the others are never turned into results
+        Comparator<Candidate> ranking = Comparator.comparingInt((Candidate candidate) -> candidate.common)
+                .thenComparingDouble(candidate -> candidate.similarity)
+                .thenComparing(candidate -> candidate.bank.name, Comparator.reverseOrder());
+        PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, ranking);
+        int minCommon = (int) Math.ceil(MIN_COVERAGE * queryTrigrams.size());
+        for (int start = 0, end; start < touched.size; start = end) {
+            end = start + 1;
+            while (end < touched.size && touched.ids[end] == touched.ids[start]) end++;
+            Bank bank = banks.get(touched.ids[start]);
+            int common = end - start;
+            if (common < minCommon || bank.swiftCodes.isEmpty()) continue;
+            double similarity = (double) common / (queryTrigrams.size() + bank.trigramCount - common);
+            Candidate candidate = new Candidate(bank, common, similarity);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (ranking.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        List<BankMatch> matches = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            Candidate candidate = best.poll();
+            matches.add(new BankMatch(candidate.bank.name, (double) candidate.common / queryTrigrams.size(),
+                    candidate.similarity, List.copyOf(candidate.bank.swiftCodes)));
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    //Distinct names, including names whose codes were all removed since the last rebuild
+    public int size() {
+        return banks.size();
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{Nd}]+", " ").trim();
+    }
+
+    static Set<String> trigrams(String normalized) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        if (normalized.isEmpty()) return trigrams;
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private static final class Candidate {
+        final Bank bank;
+        final int common;
+        final double similarity;
+
+        Candidate(Bank bank, int common, double similarity) {
+            this.bank = bank;
+            this.common = common;
+            this.similarity = similarity;
+        }
+    }
+
+    private static final class Bank {
+        final int id;
+        final String name;
+        final int trigramCount;
+        final Set<String> swiftCodes = new TreeSet<>();
+
+        Bank(int id, String name, int trigramCount) {
+            this.id = id;
+            this.name = name;
+            this.trigramCount = trigramCount;
+        }
+    }
+
+    //Growable int array; in the index the ids are added in increasing order
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void addAll(Postings other) {
+            if (size + other.size > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, size + other.size));
+            }
+            System.arraycopy(other.ids, 0, ids, size, other.size);
+            size += other.size;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+//Bank name search over a BankNameIndex of the whole table. Adds and deletes update the index in place, an import
+//builds a new one that replaces it when complete. Searches share a read lock, updates take the write lock briefly.
+@Service
+@Profile("!reactive")
+public class BankNameSearchService {
+    private final SwiftCodeRepository swiftCodeRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //one rebuild or update at a time; held while the table or the changed rows are read
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private BankNameIndex index = new BankNameIndex();
+
+    public BankNameSearchService(SwiftCodeRepository swiftCodeRepository) {
+        this.swiftCodeRepository = swiftCodeRepository;
+    }
+
+    public List<BankMatch> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        if (event.isBulk()) {
+            rebuild();
+            return;
+        }
+        //waits for a running rebuild, which may have read the table before this change
+        rebuildLock.lock();
+        try {
+            Map<String, String> bankNames = new HashMap<>();
+            for (SwiftCode row : swiftCodeRepository.findAllById(event.getSwiftCodes())) {
+                bankNames.put(row.getSwiftCode(), row.getBankName());
+            }
+            lock.writeLock().lock();
+            try {
+                for (String swiftCode : event.getSwiftCodes()) {
+                    String bankName = bankNames.get(swiftCode);
+                    if (bankName == null) {
+                        index.remove(swiftCode);
+                    } else {
+                        index.add(swiftCode, bankName);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    //Built outside the lock, searches go on against the old index meanwhile
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            BankNameIndex rebuilt = new BankNameIndex();
+            for (SwiftCode row : swiftCodeRepository.findAll()) {
+                rebuilt.add(row.getSwiftCode(), row.getBankName());
+            }
+            lock.writeLock().lock();
+            try {
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
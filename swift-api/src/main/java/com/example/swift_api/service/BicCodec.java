@@ -0,0 +1,57 @@
+package com.example.swift_api.service;
+
+//A SWIFT code packed into one long. Each of the up to 11 characters is a base 37 digit: 1-10 for 0-9, 11-36 for A-Z,
+//and 0 for a missing character, so an 8 character code and its 11 character form stay distinct. 37^11 < 2^63 and the
+//first character is the most significant digit, so keys are positive and sort like the codes they encode.
+public final class BicCodec {
+    //returned for anything that is not 1 to 11 upper case letters and digits; real keys are never 0 either
+    public static final long INVALID = -1;
+    private static final int RADIX = 37;
+    private static final int MAX_LENGTH = 11;
+    private static final String SYMBOLS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    private BicCodec() {}
+
+    public static long encode(CharSequence code) {
+        if (code == null) return INVALID;
+        int length = code.length();
+        if (length == 0 || length > MAX_LENGTH) return INVALID;
+        long key = 0;
+        for (int i = 0; i < MAX_LENGTH; i++) {
+            int digit = 0;
+            if (i < length) {
+                digit = digit(code.charAt(i));
+                if (digit == 0) return INVALID;
+            }
+            key = key * RADIX + digit;
+        }
+        return key;
+    }
+
+    public static String decode(long key) {
+        if (key <= 0) throw new IllegalArgumentException("Not an encoded SWIFT code: " + key);
+        long rest = key;
+        char[] chars = new char[MAX_LENGTH];
+        int length = 0;
+        for (int i = MAX_LENGTH - 1; i >= 0; i--) {
+            int digit = (int) (rest % RADIX);
+            rest /= RADIX;
+            if (digit != 0) {
+                chars[i] = SYMBOLS.charAt(digit - 1);
+                if (length == 0) length = i + 1;
+            } else if (length != 0) {
+                //a missing character before a present one
+                throw new IllegalArgumentException("Not an encoded SWIFT code: " + key);
+            }
+        }
+        //more than 11 digits
+        if (rest != 0) throw new IllegalArgumentException("Not an encoded SWIFT code: " + key);
+        return new String(chars, 0, length);
+    }
+
+    private static int digit(char c) {
+        if (c >= '0' && c <= '9') return c - '0' + 1;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 11;
+        return 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.swift_api.service;
+
+//Structure of a BIC (ISO 9362): 4 institution characters, a 2 letter ISO 3166 country, 2 location characters and
+//an optional 3 character branch, upper case letters and digits only. One pass over the characters, no allocation,
+//so malformed codes are turned away before they cost a query.
+public final class BicValidator {
+    //ISO 3166-1 alpha-2 codes in use, and XK (Kosovo), which SWIFT assigns as well
+    private static final String COUNTRY_CODES =
+            "AD AE AF AG AI AL AM AO AQ AR AS AT AU AW AX AZ BA BB BD BE BF BG BH BI BJ BL BM BN BO BQ BR BS BT BV " +
+            "BW BY BZ CA CC CD CF CG CH CI CK CL CM CN CO CR CU CV CW CX CY CZ DE DJ DK DM DO DZ EC EE EG EH ER ES " +
+            "ET FI FJ FK FM FO FR GA GB GD GE GF GG GH GI GL GM GN GP GQ GR GS GT GU GW GY HK HM HN HR HT HU ID IE " +
+            "IL IM IN IO IQ IR IS IT JE JM JO JP KE KG KH KI KM KN KP KR KW KY KZ LA LB LC LI LK LR LS LT LU LV LY " +
+            "MA MC MD ME MF MG MH MK ML MM MN MO MP MQ MR MS MT MU MV MW MX MY MZ NA NC NE NF NG NI NL NO NP NR NU " +
+            "NZ OM PA PE PF PG PH PK PL PM PN PR PS PT PW PY QA RE RO RS RU RW SA SB SC SD SE SG SH SI SJ SK SL SM " +
+            "SN SO SR SS ST SV SX SY SZ TC TD TF TG TH TJ TK TL TM TN TO TR TT TV TW TZ UA UG UM US UY UZ VA VC VE " +
+            "VG VI VN VU WF WS XK YE YT ZA ZM ZW";
+    //bit (first - 'A') * 26 + (second - 'A') is set for every country above
+    private static final long[] COUNTRIES = new long[(26 * 26 + 63) / 64];
+
+    static {
+        for (int i = 0; i < COUNTRY_CODES.length(); i += 3) {
+            int index = countryIndex(COUNTRY_CODES.charAt(i), COUNTRY_CODES.charAt(i + 1));
+            COUNTRIES[index >>> 6] |= 1L << index;
+        }
+    }
+
+    private BicValidator() {}
+
+    public static boolean isValid(CharSequence bic) {
+        if (bic == null) return false;
+        int length = bic.length();
+        if (length != 8 && length != 11) return false;
+        for (int i = 0; i < length; i++) {
+            char c = bic.charAt(i);
+            boolean letter = c >= 'A' && c <= 'Z';
+            if (i == 4 || i == 5) {
+                //the country, checked as a pair below
+                if (!letter) return false;
+            } else if (!letter && (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        if (!isCountry(bic.charAt(4), bic.charAt(5))) return false;
+        //a branch starting with X is only the primary office, XXX
+        return length == 8 || bic.charAt(8) != 'X' || (bic.charAt(9) == 'X' && bic.charAt(10) == 'X');
+    }
+
+    //An assigned ISO 3166 alpha-2 code, upper case
+    public static boolean isCountry(CharSequence iso2) {
+        return iso2 != null && iso2.length() == 2 && isCountry(iso2.charAt(0), iso2.charAt(1));
+    }
+
+    private static boolean isCountry(char first, char second) {
+        if (first < 'A' || first > 'Z' || second < 'A' || second > 'Z') return false;
+        int index = countryIndex(first, second);
+        return (COUNTRIES[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private static int countryIndex(char first, char second) {
+        return (first - 'A') * 26 + (second - 'A');
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+//PostgreSQL only: COPY into a temporary staging table, then one INSERT ... ON CONFLICT into swift_codes
+@Component
+@Profile("!reactive")
+public class CopyImportEngine implements ImportEngine {
+    private static final Logger log = LoggerFactory.getLogger(CopyImportEngine.class);
+    private static final String COLUMNS =
+            "swift_code, bank_name, countryiso2, country_name, address, is_headquarter, hq_swift_code";
+
+    private static final String CREATE_STAGING_SQL =
+            "CREATE TEMPORARY TABLE swift_codes_staging (LIKE swift_codes INCLUDING DEFAULTS) ON COMMIT DROP";
+    private static final String ADD_ROW_NO_SQL =
+            "ALTER TABLE swift_codes_staging ADD COLUMN row_no bigint";
+    private static final String COPY_SQL =
+            "COPY swift_codes_staging (" + COLUMNS + ", row_no) FROM STDIN";
+    //the last occurrence of a code in the file wins, like it does on the JPA path
+    private static final String MERGE_SQL =
+            "INSERT INTO swift_codes (" + COLUMNS + ") " +
+            "SELECT DISTINCT ON (swift_code) " + COLUMNS + " FROM swift_codes_staging " +
+            "ORDER BY swift_code, row_no DESC " +
+            "ON CONFLICT (swift_code) DO UPDATE SET " +
+            "bank_name = EXCLUDED.bank_name, countryiso2 = EXCLUDED.countryiso2, " +
+            "country_name = EXCLUDED.country_name, address = EXCLUDED.address, " +
+            "is_headquarter = EXCLUDED.is_headquarter, hq_swift_code = EXCLUDED.hq_swift_code";
+
+    private final DataSource dataSource;
+    private volatile Boolean available;
+
+    public CopyImportEngine(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public ImportEngineType getType() {
+        return ImportEngineType.COPY;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (available == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                available = connection.isWrapperFor(PGConnection.class);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public ImportSink openSink() {
+        try {
+            return new CopySink(dataSource.getConnection());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to open COPY import session", e);
+        }
+    }
+
+    static void appendRow(StringBuilder out, SwiftCode swiftCode, long rowNo) {
+        appendField(out, swiftCode.getSwiftCode()).append('\t');
+        appendField(out, swiftCode.getBankName()).append('\t');
+        appendField(out, swiftCode.getCountryISO2()).append('\t');
+        appendField(out, swiftCode.getCountryName()).append('\t');
+        appendField(out, swiftCode.getAddress()).append('\t');
+        out.append(swiftCode.isHeadquarter() ? 't' : 'f').append('\t');
+        appendField(out, swiftCode.getHqSwiftCode()).append('\t');
+        out.append(rowNo).append('\n');
+    }
+
+    //COPY text format: backslash escapes for the delimiter, line breaks and backslash itself, \N for NULL
+    private static StringBuilder appendField(StringBuilder out, String value) {
+        if (value == null) {
+            return out.append("\\N");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.append("\\\\");
+                case '\t' -> out.append("\\t");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                default -> out.append(c);
+            }
+        }
+        return out;
+    }
+
+    private static class CopySink implements ImportSink {
+        private final Connection connection;
+        private final StringBuilder buffer = new StringBuilder();
+        private CopyIn copyIn;
+        private long rowNo;
+
+        CopySink(Connection connection) throws SQLException {
+            this.connection = connection;
+            try {
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(CREATE_STAGING_SQL);
+                    statement.execute(ADD_ROW_NO_SQL);
+                }
+                copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            } catch (SQLException e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(List<SwiftCode> chunk) {
+            buffer.setLength(0);
+            for (SwiftCode swiftCode : chunk) {
+                appendRow(buffer, swiftCode, rowNo++);
+            }
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            try {
+                copyIn.writeToCopy(bytes, 0, bytes.length);
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to COPY SWIFT codes into staging table", e);
+            }
+        }
+
+        @Override
+        public void complete() {
+            try {
+                copyIn.endCopy();
+                try (Statement statement = connection.createStatement()) {
+                    statement.executeUpdate(MERGE_SQL);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                throw new RuntimeException("Failed to merge staged SWIFT codes", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                if (copyIn != null && copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                log.warn("Failed to roll back COPY import session", e);
+            } finally {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.warn("Failed to close COPY import connection", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.swift_api.service;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Version of the whole data set, bumped after every add, delete and import. The read endpoints use it as their
+//ETag: while it is unchanged no response can have changed, so an If-None-Match naming the tag of the negotiated
+//representation is answered with 304 before anything is read. The tag also carries the start time of this
+//instance, so tags of another instance or from before a restart never match.
+@Component
+@Profile("!reactive")
+public class DatasetVersion {
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final AtomicLong version = new AtomicLong();
+
+    //Strong ETag, quoted
+    public String etag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    //The tag of another representation of the same data, e.g. the gzipped body: a strong tag has to differ
+    //between representations
+    public static String variant(String etag, String suffix) {
+        return etag.substring(0, etag.length() - 1) + "-" + suffix + "\"";
+    }
+
+    //The one of tags (the representations the request could be answered with) named in the If-None-Match
+    //header, null if none is. A 304 repeats it, as it names the representation the client holds. "*" is not
+    //matched here: it stands for any current representation, so it can only be answered once the resource is found.
+    public static String match(String ifNoneMatch, List<String> tags) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return null;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            //If-None-Match uses the weak comparison
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tags.contains(tag)) return tag;
+        }
+        return null;
+    }
+
+    //Whether the If-None-Match header is "*"
+    public static boolean matchesAny(String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            if (tag.trim().equals("*")) return true;
+        }
+        return false;
+    }
+
+    //Runs after the caches and the snapshot have dropped the old data (they listen with a higher precedence),
+    //otherwise a request in between could tag old data with the new version
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
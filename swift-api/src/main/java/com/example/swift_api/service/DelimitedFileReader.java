@@ -0,0 +1,184 @@
+package com.example.swift_api.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//Reads CSV/TSV from a memory-mapped view of the file. Fields are located by byte offset and decoded straight
+//into the cell values, no line Strings are built. Quoted fields follow RFC 4180 ("" inside quotes is a quote).
+public class DelimitedFileReader {
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final int columnCount;
+    private final byte delimiter;
+    //files larger than this are mapped in consecutive windows, a record must fit in one window
+    private final int windowSize;
+
+    public DelimitedFileReader(int columnCount, char delimiter) {
+        this(columnCount, delimiter, DEFAULT_WINDOW_SIZE);
+    }
+
+    DelimitedFileReader(int columnCount, char delimiter, int windowSize) {
+        this.columnCount = columnCount;
+        this.delimiter = (byte) delimiter;
+        this.windowSize = windowSize;
+    }
+
+    public void read(Path file, RowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            RecordParser parser = new RecordParser(handler);
+            long size = channel.size();
+            long position = skipByteOrderMark(channel);
+
+            while (position < size) {
+                long length = Math.min(windowSize, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed = parser.parse(window, lastWindow);
+                if (consumed == 0 && !lastWindow) {
+                    throw new IOException("Record at byte " + position + " is longer than " + windowSize + " bytes");
+                }
+                position += consumed;
+            }
+        }
+    }
+
+    private static long skipByteOrderMark(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(3);
+        channel.read(head, 0);
+        boolean bom = head.position() == 3
+                && head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF;
+        return bom ? 3 : 0;
+    }
+
+    private class RecordParser {
+        private final RowHandler handler;
+        private final String[] cells = new String[columnCount];
+        private byte[] scratch = new byte[256];
+        private int rowNum;
+
+        RecordParser(RowHandler handler) {
+            this.handler = handler;
+        }
+
+        //Hands every complete record in the window to the handler and returns the bytes consumed; an incomplete
+        //record at the end of a window that is not the last is left for the next window
+        int parse(ByteBuffer window, boolean lastWindow) {
+            int limit = window.limit();
+            int consumed = 0;
+            while (consumed < limit) {
+                int next = parseRecord(window, consumed, limit, lastWindow);
+                if (next < 0) break;
+                consumed = next;
+            }
+            return consumed;
+        }
+
+        //Returns the offset after the record's line break, -1 when the record continues past the window
+        private int parseRecord(ByteBuffer buf, int pos, int limit, boolean lastWindow) {
+            Arrays.fill(cells, null);
+            int column = 0;
+
+            while (true) {
+                String value;
+                if (pos < limit && buf.get(pos) == '"') {
+                    int length = 0;
+                    pos++;
+                    while (true) {
+                        if (pos >= limit) {
+                            if (!lastWindow) return -1;
+                            break;
+                        }
+                        byte b = buf.get(pos);
+                        if (b == '"') {
+                            if (pos + 1 >= limit && !lastWindow) return -1;
+                            if (pos + 1 < limit && buf.get(pos + 1) == '"') {
+                                length = append(length, b);
+                                pos += 2;
+                                continue;
+                            }
+                            pos++;
+                            break;
+                        }
+                        length = append(length, b);
+                        pos++;
+                    }
+                    //anything between the closing quote and the delimiter is ignored
+                    while (pos < limit && !isFieldEnd(buf.get(pos))) pos++;
+                    value = column < columnCount ? decode(0, length) : null;
+                } else {
+                    int start = pos;
+                    while (pos < limit && !isFieldEnd(buf.get(pos))) pos++;
+                    value = column < columnCount ? decode(buf, start, pos) : null;
+                }
+
+                if (pos >= limit && !lastWindow) return -1;
+                if (column < columnCount) cells[column] = value;
+
+                if (pos >= limit) {
+                    emit();
+                    return pos;
+                }
+                byte b = buf.get(pos++);
+                if (b == delimiter) {
+                    column++;
+                    continue;
+                }
+                if (b == '\r' && pos < limit && buf.get(pos) == '\n') pos++;
+                emit();
+                return pos;
+            }
+        }
+
+        //Blank lines are skipped, so row 0 is always the header
+        private void emit() {
+            for (String cell : cells) {
+                if (cell != null) {
+                    handler.handleRow(rowNum++, cells);
+                    return;
+                }
+            }
+        }
+
+        private boolean isFieldEnd(byte b) {
+            return b == delimiter || b == '\n' || b == '\r';
+        }
+
+        private int append(int length, byte b) {
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length] = b;
+            return length + 1;
+        }
+
+        private String decode(ByteBuffer buf, int start, int end) {
+            while (start < end && isBlank(buf.get(start))) start++;
+            while (end > start && isBlank(buf.get(end - 1))) end--;
+            int length = end - start;
+            if (length == 0) return null;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buf.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private String decode(int start, int end) {
+            while (start < end && isBlank(scratch[start])) start++;
+            while (end > start && isBlank(scratch[end - 1])) end--;
+            return end == start ? null : new String(scratch, start, end - start, StandardCharsets.UTF_8);
+        }
+
+        //same characters as String.trim() on the Excel path
+        private boolean isBlank(byte b) {
+            return (b & 0xFF) <= ' ';
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.repository.SwiftCodeRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Profile("!reactive")
+public class DeltaImportSupport {
+    private static final String CONTENT_SQL =
+            "SELECT swift_code, bank_name, countryiso2, country_name, address, is_headquarter FROM swift_codes";
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SwiftCodeRepository swiftCodeRepository;
+
+    public DeltaImportSupport(JdbcTemplate jdbcTemplate, SwiftCodeRepository swiftCodeRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.swiftCodeRepository = swiftCodeRepository;
+    }
+
+    //One forward-only pass over swift_codes, keeping only code -> content hash
+    @Transactional
+    public Map<String, Long> loadContentHashes() {
+        Map<String, Long> hashes = new ConcurrentHashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CONTENT_SQL);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            hashes.put(resultSet.getString(1), SwiftCodeHasher.hash(resultSet.getString(2), resultSet.getString(3),
+                    resultSet.getString(4), resultSet.getString(5), resultSet.getBoolean(6)));
+        });
+        return hashes;
+    }
+
+    @Transactional
+    public void deleteCodes(Collection<String> swiftCodes, int chunkSize) {
+        List<String> chunk = new ArrayList<>(chunkSize);
+        for (String swiftCode : swiftCodes) {
+            chunk.add(swiftCode);
+            if (chunk.size() >= chunkSize) {
+                swiftCodeRepository.deleteAllByIdInBatch(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            swiftCodeRepository.deleteAllByIdInBatch(chunk);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Finds headquarters already stored in swift_codes by 8 character bank prefix. An HQ code is always the
+//prefix followed by XXX, so the lookup is a primary key IN query.
+@Component
+@Profile("!reactive")
+public class HeadquartersResolver {
+    static final String HQ_SUFFIX = "XXX";
+
+    private final SwiftCodeRepository swiftCodeRepository;
+
+    public HeadquartersResolver(SwiftCodeRepository swiftCodeRepository) {
+        this.swiftCodeRepository = swiftCodeRepository;
+    }
+
+    //One query for all given prefixes; prefixes without an HQ in the database are left out of the result
+    public Map<String, String> findHeadquarters(Collection<String> bankPrefixes) {
+        if (bankPrefixes.isEmpty()) {
+            return Map.of();
+        }
+        List<String> hqCodes = swiftCodeRepository.findHeadquarterCodes(
+                bankPrefixes.stream().map(prefix -> prefix + HQ_SUFFIX).toList());
+
+        Map<String, String> hqByPrefix = new HashMap<>();
+        for (String hqCode : hqCodes) {
+            hqByPrefix.put(bankPrefix(hqCode), hqCode);
+        }
+        return hqByPrefix;
+    }
+
+    public static String bankPrefix(String swiftCode) {
+        return swiftCode != null && swiftCode.length() >= 8 ? swiftCode.substring(0, 8) : null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.swift_api.service;
+
+public interface ImportEngine {
+    ImportEngineType getType();
+
+    boolean isAvailable();
+
+    ImportSink openSink();
+}
@@ -0,0 +1,6 @@
+package com.example.swift_api.service;
+
+public enum ImportEngineType {
+    JPA,
+    COPY
+}
@@ -0,0 +1,15 @@
+package com.example.swift_api.service;
+
+public enum ImportFormat {
+    XLSX,
+    CSV,
+    TSV;
+
+    //Format implied by the uploaded file's extension, Excel unless it is .csv or .tsv
+    public static ImportFormat fromFileName(String fileName) {
+        String name = fileName == null ? "" : fileName.toLowerCase();
+        if (name.endsWith(".csv")) return CSV;
+        if (name.endsWith(".tsv") || name.endsWith(".tab")) return TSV;
+        return XLSX;
+    }
+}
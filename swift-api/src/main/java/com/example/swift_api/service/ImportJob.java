@@ -0,0 +1,148 @@
+package com.example.swift_api.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public class ImportJob {
+    private final String id;
+    private final String fileName;
+    private final String digest;
+    private final String settings;
+    private final Instant submittedAt;
+    private final ImportProgress progress = new ImportProgress();
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile AppliedImport appliedImport;
+
+    public ImportJob(String id, String fileName) {
+        this(id, fileName, null, null);
+    }
+
+    public ImportJob(String id, String fileName, String digest, String settings) {
+        this.id = id;
+        this.fileName = fileName;
+        this.digest = digest;
+        this.settings = settings;
+        this.submittedAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    //SHA-256 of the uploaded file, hex encoded
+    public String getDigest() {
+        return digest;
+    }
+
+    //The import options that change the result, see ImportOptions.resultSettings
+    public String getSettings() {
+        return settings;
+    }
+
+    //Set when the job was skipped: the earlier import of the same file
+    public AppliedImport getAppliedImport() {
+        return appliedImport;
+    }
+
+    public long getRowsParsed() {
+        return progress.getRowsParsed();
+    }
+
+    public long getRowsPersisted() {
+        return progress.getRowsPersisted();
+    }
+
+    public long getRowsSkipped() {
+        return progress.getRowsSkipped();
+    }
+
+    public long getRowsInserted() {
+        return progress.getRowsInserted();
+    }
+
+    public long getRowsUpdated() {
+        return progress.getRowsUpdated();
+    }
+
+    public long getRowsUnchanged() {
+        return progress.getRowsUnchanged();
+    }
+
+    public long getRowsDeleted() {
+        return progress.getRowsDeleted();
+    }
+
+    public List<StageStats> getStages() {
+        return progress.getStages();
+    }
+
+    //Parsed rows per second since the job started, up to now while it is still running
+    public double getRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(start, end).toMillis());
+        return progress.getRowsParsed() * 1000.0 / millis;
+    }
+
+    public boolean isFinished() {
+        return status == ImportJobStatus.COMPLETED || status == ImportJobStatus.FAILED
+                || status == ImportJobStatus.SKIPPED;
+    }
+
+    ImportProgress progress() {
+        return progress;
+    }
+
+    void markRunning() {
+        startedAt = Instant.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    void markCompleted() {
+        finishedAt = Instant.now();
+        status = ImportJobStatus.COMPLETED;
+    }
+
+    void markSkipped(AppliedImport appliedImport) {
+        this.appliedImport = appliedImport;
+        finishedAt = Instant.now();
+        status = ImportJobStatus.SKIPPED;
+    }
+
+    void markFailed(String error) {
+        finishedAt = Instant.now();
+        this.error = error;
+        status = ImportJobStatus.FAILED;
+    }
+}
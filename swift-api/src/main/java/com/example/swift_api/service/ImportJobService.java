@@ -0,0 +1,141 @@
+package com.example.swift_api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+@Service
+@Profile("!reactive")
+public class ImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    private final SwiftCodeImportService importService;
+    private final TaskExecutor importExecutor;
+    private final AppliedImportRegistry registry;
+    private final int retainedJobs;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(SwiftCodeImportService importService,
+                            @Qualifier("importExecutor") TaskExecutor importExecutor,
+                            AppliedImportRegistry registry,
+                            @Value("${swift.import.jobs.retained:100}") int retainedJobs) {
+        this.importService = importService;
+        this.importExecutor = importExecutor;
+        this.registry = registry;
+        this.retainedJobs = retainedJobs;
+    }
+
+    //Throws RejectedExecutionException when the import queue is full. Unless options.isForce(), a file that is
+    //already queued or running with the same options returns that job, and a file that was already applied with
+    //them returns a SKIPPED job.
+    public ImportJob submit(MultipartFile file, ImportOptions options) {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Uploaded file is empty");
+        }
+        MessageDigest sha256 = newDigest();
+        Path tempFile;
+        try {
+            tempFile = TempFiles.spool(file, sha256);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store uploaded file", e);
+        }
+        String digest = HexFormat.of().formatHex(sha256.digest());
+        if (options.getFormat() == null) {
+            options.setFormat(ImportFormat.fromFileName(file.getOriginalFilename()));
+        }
+        String settings = options.resultSettings();
+
+        if (!options.isForce()) {
+            Optional<ImportJob> duplicate = findDuplicate(digest, settings, file.getOriginalFilename());
+            if (duplicate.isPresent()) {
+                TempFiles.deleteQuietly(tempFile);
+                evictFinishedJobs();
+                return duplicate.get();
+            }
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), digest, settings);
+        jobs.put(job.getId(), job);
+        try {
+            importExecutor.execute(() -> run(job, tempFile, options));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            TempFiles.deleteQuietly(tempFile);
+            throw e;
+        }
+        evictFinishedJobs();
+        return job;
+    }
+
+    public Optional<ImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private Optional<ImportJob> findDuplicate(String digest, String settings, String fileName) {
+        Optional<ImportJob> active = jobs.values().stream()
+                .filter(job -> !job.isFinished() && digest.equals(job.getDigest()) && settings.equals(job.getSettings()))
+                .findFirst();
+        if (active.isPresent()) {
+            return active;
+        }
+        return registry.findCurrent(digest, settings).map(applied -> {
+            ImportJob skipped = new ImportJob(UUID.randomUUID().toString(), fileName, digest, settings);
+            skipped.markSkipped(applied);
+            jobs.put(skipped.getId(), skipped);
+            return skipped;
+        });
+    }
+
+    private void run(ImportJob job, Path file, ImportOptions options) {
+        job.markRunning();
+        long startGeneration = registry.generation();
+        try {
+            importService.importSwiftCodes(file, options, job.progress());
+            job.markCompleted();
+            registry.record(new AppliedImport(job.getDigest(), job.getSettings(), job.getId(), job.getFileName(),
+                    job.getRowsParsed(), job.getRowsPersisted(), Instant.now()), startGeneration);
+        } catch (Exception e) {
+            log.error("Import job {} failed", job.getId(), e);
+            job.markFailed(e.getMessage());
+        } finally {
+            TempFiles.deleteQuietly(file);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        int excess = jobs.size() - retainedJobs;
+        if (excess <= 0) {
+            return;
+        }
+        jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing(ImportJob::getSubmittedAt))
+                .limit(excess)
+                .forEach(job -> jobs.remove(job.getId()));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.swift_api.service;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    //identical to an import that was already applied, nothing was imported
+    SKIPPED
+}
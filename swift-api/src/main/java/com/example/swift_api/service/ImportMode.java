@@ -0,0 +1,8 @@
+package com.example.swift_api.service;
+
+public enum ImportMode {
+    //write every row of the file
+    FULL,
+    //write only rows that are new or whose content differs from the database
+    DELTA
+}
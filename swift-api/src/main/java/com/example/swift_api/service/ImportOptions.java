@@ -0,0 +1,68 @@
+package com.example.swift_api.service;
+
+//Per-request import settings, bound from the query string of the import endpoint; unset values use the configured defaults
+public class ImportOptions {
+    private ImportEngineType engine;
+    //unset: taken from the uploaded file's extension
+    private ImportFormat format;
+    private ImportMode mode = ImportMode.FULL;
+    //delta mode only: delete rows that are not in the file
+    private boolean deleteMissing;
+    private Boolean pipelined;
+    //import even when the same file was applied already and nothing changed since
+    private boolean force;
+
+    public ImportEngineType getEngine() {
+        return engine;
+    }
+
+    public void setEngine(ImportEngineType engine) {
+        this.engine = engine;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(ImportFormat format) {
+        this.format = format;
+    }
+
+    public ImportMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ImportMode mode) {
+        this.mode = mode;
+    }
+
+    public boolean isDeleteMissing() {
+        return deleteMissing;
+    }
+
+    public void setDeleteMissing(boolean deleteMissing) {
+        this.deleteMissing = deleteMissing;
+    }
+
+    public boolean isForce() {
+        return force;
+    }
+
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    //The settings that decide what an import of a given file writes, once the format is resolved. The engine and
+    //pipelining only change how the rows get there.
+    String resultSettings() {
+        return "format=" + format + ",mode=" + mode + (mode == ImportMode.DELTA && deleteMissing ? ",deleteMissing" : "");
+    }
+
+    public Boolean getPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(Boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+//parse (1 thread) -> validate/normalise (workers) -> persist (writers), connected by bounded queues so a slow
+//stage blocks the one before it. Each writer has its own ImportSink and so its own DB connection.
+//Every queue belongs to one worker or writer and rows are routed to it by SWIFT code, so all rows of a code pass
+//through the same worker and writer in file order: writers never insert the same new code concurrently, and the
+//last occurrence of a code in the file is written last.
+@Component
+@Profile("!reactive")
+public class ImportPipeline {
+    private static final int ROW_BATCH_SIZE = 500;
+    private static final List<ParsedRow> END_OF_ROWS = new ArrayList<>();
+    private static final List<SwiftCode> END_OF_CHUNKS = new ArrayList<>();
+
+    private final int workers;
+    private final int writers;
+    private final int queueCapacity;
+    private final ExecutorService executor;
+
+    public ImportPipeline(@Value("${swift.import.pipeline.workers:0}") int workers,
+                          @Value("${swift.import.pipeline.writers:4}") int writers,
+                          @Value("${swift.import.pipeline.queue-capacity:8}") int queueCapacity,
+                          @Qualifier("importPipelineExecutor") ExecutorService executor) {
+        this.workers = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.writers = writers;
+        this.queueCapacity = queueCapacity;
+        this.executor = executor;
+    }
+
+    List<StageStats> run(RowSource source, RowProcessor processor, ImportEngine engine, int chunkSize,
+                      ImportProgress progress) throws IOException {
+        List<BlockingQueue<List<ParsedRow>>> rowQueues = queues(workers);
+        List<BlockingQueue<List<SwiftCode>>> chunkQueues = queues(writers);
+        StageStats parseStats = new StageStats("parse", 1);
+        StageStats validateStats = new StageStats("validate", workers);
+        StageStats persistStats = new StageStats("persist", writers);
+        AtomicInteger runningWorkers = new AtomicInteger(workers);
+
+        Stages stages = new Stages(1 + workers + writers);
+        stages.start(executor, () -> parse(source, rowQueues, parseStats));
+        for (BlockingQueue<List<ParsedRow>> rowQueue : rowQueues) {
+            stages.start(executor,
+                    () -> validate(processor, rowQueue, chunkQueues, chunkSize, runningWorkers, validateStats));
+        }
+        for (BlockingQueue<List<SwiftCode>> chunkQueue : chunkQueues) {
+            stages.start(executor, () -> persist(engine, chunkQueue, progress, persistStats));
+        }
+
+        try {
+            stages.finished.await();
+        } catch (InterruptedException e) {
+            stages.stop();
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import pipeline interrupted");
+        }
+
+        Throwable error = stages.failure.get();
+        if (error instanceof IOException ioException) throw ioException;
+        if (error instanceof RuntimeException runtimeException) throw runtimeException;
+        if (error != null) throw new RuntimeException("Import pipeline failed", error);
+        return List.of(parseStats, validateStats, persistStats);
+    }
+
+    private void parse(RowSource source, List<BlockingQueue<List<ParsedRow>>> rowQueues, StageStats stats)
+            throws IOException {
+        stats.threadStarted();
+        long start = System.nanoTime();
+        RowBatcher batcher = new RowBatcher(rowQueues);
+        source.read(batcher);
+        batcher.flush();
+        for (BlockingQueue<List<ParsedRow>> rowQueue : rowQueues) {
+            put(rowQueue, END_OF_ROWS);
+        }
+        stats.record(batcher.rows, System.nanoTime() - start - batcher.waitNanos);
+        stats.threadFinished();
+    }
+
+    private void validate(RowProcessor processor, BlockingQueue<List<ParsedRow>> rowQueue,
+                          List<BlockingQueue<List<SwiftCode>>> chunkQueues, int chunkSize,
+                          AtomicInteger runningWorkers, StageStats stats) {
+        stats.threadStarted();
+        //one chunk in the making per writer
+        List<List<SwiftCode>> chunks = new ArrayList<>(chunkQueues.size());
+        for (int i = 0; i < chunkQueues.size(); i++) {
+            chunks.add(new ArrayList<>(chunkSize));
+        }
+        while (true) {
+            List<ParsedRow> batch = take(rowQueue);
+            if (batch == END_OF_ROWS) break;
+
+            long start = System.nanoTime();
+            long waitNanos = 0;
+            for (ParsedRow row : batch) {
+                SwiftCode swiftCode = processor.process(row.rowNum, row.cells);
+                if (swiftCode == null) continue;
+
+                int writer = route(swiftCode.getSwiftCode(), chunkQueues.size());
+                List<SwiftCode> chunk = chunks.get(writer);
+                chunk.add(swiftCode);
+                if (chunk.size() >= chunkSize) {
+                    processor.resolveHeadquarters(chunk);
+                    waitNanos += put(chunkQueues.get(writer), chunk);
+                    chunks.set(writer, new ArrayList<>(chunkSize));
+                }
+            }
+            stats.record(batch.size(), System.nanoTime() - start - waitNanos);
+        }
+        for (int writer = 0; writer < chunks.size(); writer++) {
+            List<SwiftCode> chunk = chunks.get(writer);
+            if (!chunk.isEmpty()) {
+                processor.resolveHeadquarters(chunk);
+                put(chunkQueues.get(writer), chunk);
+            }
+        }
+        if (runningWorkers.decrementAndGet() == 0) {
+            for (BlockingQueue<List<SwiftCode>> chunkQueue : chunkQueues) {
+                put(chunkQueue, END_OF_CHUNKS);
+            }
+        }
+        stats.threadFinished();
+    }
+
+    private void persist(ImportEngine engine, BlockingQueue<List<SwiftCode>> chunkQueue, ImportProgress progress,
+                         StageStats stats) {
+        stats.threadStarted();
+        try (ImportSink sink = engine.openSink()) {
+            while (true) {
+                List<SwiftCode> chunk = take(chunkQueue);
+                if (chunk == END_OF_CHUNKS) break;
+
+                long start = System.nanoTime();
+                sink.write(chunk);
+                progress.rowsPersisted(chunk.size());
+                stats.record(chunk.size(), System.nanoTime() - start);
+            }
+            long start = System.nanoTime();
+            sink.complete();
+            stats.record(0, System.nanoTime() - start);
+        }
+        stats.threadFinished();
+    }
+
+    private <T> List<BlockingQueue<T>> queues(int count) {
+        List<BlockingQueue<T>> queues = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        return queues;
+    }
+
+    //The worker or writer out of count that handles swiftCode; rows without a code are all skipped, any worker will do
+    private static int route(String swiftCode, int count) {
+        return swiftCode == null ? 0 : Math.floorMod(swiftCode.hashCode(), count);
+    }
+
+    private static <T> long put(BlockingQueue<T> queue, T item) {
+        long start = System.nanoTime();
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import pipeline cancelled");
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static <T> T take(BlockingQueue<T> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Import pipeline cancelled");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    //The stages of one run on the shared executor. The executor can't be shut down to stop them, so each stage
+    //registers its thread: the first failure interrupts the ones blocked on a queue, and a stage that only starts
+    //after it returns at once.
+    private static final class Stages {
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final CountDownLatch finished;
+        //guarded by itself: stop() interrupts only threads still running a stage of this import
+        final Set<Thread> threads = new HashSet<>();
+
+        Stages(int count) {
+            this.finished = new CountDownLatch(count);
+        }
+
+        void start(ExecutorService executor, Stage stage) {
+            try {
+                executor.execute(guarded(stage));
+            } catch (RejectedExecutionException e) {
+                //the executor is shutting down, the stages already started must not wait for this one forever
+                stop();
+                throw e;
+            }
+        }
+
+        private Runnable guarded(Stage stage) {
+            return () -> {
+                Thread thread = Thread.currentThread();
+                synchronized (threads) {
+                    threads.add(thread);
+                }
+                try {
+                    if (failure.get() == null) stage.run();
+                } catch (Throwable t) {
+                    if (failure.compareAndSet(null, t)) stop();
+                } finally {
+                    //under the lock stop() interrupts with, so no interrupt meant for this stage can land after
+                    //the flag is cleared and follow the pooled thread into its next task
+                    synchronized (threads) {
+                        threads.remove(thread);
+                        Thread.interrupted();
+                    }
+                    finished.countDown();
+                }
+            };
+        }
+
+        void stop() {
+            failure.compareAndSet(null, new CancellationException("Import pipeline cancelled"));
+            synchronized (threads) {
+                threads.forEach(Thread::interrupt);
+            }
+        }
+    }
+
+    private static final class ParsedRow {
+        final int rowNum;
+        final String[] cells;
+
+        ParsedRow(int rowNum, String[] cells) {
+            this.rowNum = rowNum;
+            this.cells = cells;
+        }
+    }
+
+    //Hands rows to their workers in batches to keep queue traffic low; cells are copied as readers reuse the array
+    private static final class RowBatcher implements RowHandler {
+        private final List<BlockingQueue<List<ParsedRow>>> rowQueues;
+        private final List<List<ParsedRow>> batches;
+        private int rows;
+        private long waitNanos;
+
+        RowBatcher(List<BlockingQueue<List<ParsedRow>>> rowQueues) {
+            this.rowQueues = rowQueues;
+            this.batches = new ArrayList<>(rowQueues.size());
+            for (int i = 0; i < rowQueues.size(); i++) {
+                batches.add(new ArrayList<>(ROW_BATCH_SIZE));
+            }
+        }
+
+        @Override
+        public void handleRow(int rowNum, String[] cells) {
+            int worker = route(cells[1], rowQueues.size());
+            List<ParsedRow> batch = batches.get(worker);
+            batch.add(new ParsedRow(rowNum, cells.clone()));
+            rows++;
+            if (batch.size() >= ROW_BATCH_SIZE) {
+                flush(worker);
+            }
+        }
+
+        void flush() {
+            for (int worker = 0; worker < batches.size(); worker++) {
+                flush(worker);
+            }
+        }
+
+        private void flush(int worker) {
+            List<ParsedRow> batch = batches.get(worker);
+            if (!batch.isEmpty()) {
+                waitNanos += put(rowQueues.get(worker), batch);
+                batches.set(worker, new ArrayList<>(ROW_BATCH_SIZE));
+            }
+        }
+    }
+}
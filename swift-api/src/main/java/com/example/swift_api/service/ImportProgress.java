@@ -0,0 +1,82 @@
+package com.example.swift_api.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Live row counters of one import, safe to read from other threads while the import runs
+public class ImportProgress {
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private final AtomicLong rowsSkipped = new AtomicLong();
+    //change summary, only counted by delta imports
+    private final AtomicLong rowsInserted = new AtomicLong();
+    private final AtomicLong rowsUpdated = new AtomicLong();
+    private final AtomicLong rowsUnchanged = new AtomicLong();
+    private final AtomicLong rowsDeleted = new AtomicLong();
+    //pipelined imports only, set when the pipeline has finished
+    private volatile List<StageStats> stages;
+
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted.get();
+    }
+
+    public long getRowsSkipped() {
+        return rowsSkipped.get();
+    }
+
+    public long getRowsInserted() {
+        return rowsInserted.get();
+    }
+
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    public long getRowsUnchanged() {
+        return rowsUnchanged.get();
+    }
+
+    public long getRowsDeleted() {
+        return rowsDeleted.get();
+    }
+
+    public List<StageStats> getStages() {
+        return stages;
+    }
+
+    void setStages(List<StageStats> stages) {
+        this.stages = stages;
+    }
+
+    void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    void rowSkipped() {
+        rowsSkipped.incrementAndGet();
+    }
+
+    void rowsPersisted(int count) {
+        rowsPersisted.addAndGet(count);
+    }
+
+    void rowInserted() {
+        rowsInserted.incrementAndGet();
+    }
+
+    void rowUpdated() {
+        rowsUpdated.incrementAndGet();
+    }
+
+    void rowUnchanged() {
+        rowsUnchanged.incrementAndGet();
+    }
+
+    void rowsDeleted(int count) {
+        rowsDeleted.addAndGet(count);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+
+import java.util.List;
+
+public interface ImportSink extends AutoCloseable {
+    void write(List<SwiftCode> chunk);
+
+    //Called once after the last chunk, rows must be visible in swift_codes afterwards
+    void complete();
+
+    //Releases resources, discarding anything not completed
+    @Override
+    void close();
+}
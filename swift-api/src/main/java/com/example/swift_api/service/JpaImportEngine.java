@@ -0,0 +1,46 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Profile("!reactive")
+public class JpaImportEngine implements ImportEngine {
+    private final SwiftCodeChunkWriter chunkWriter;
+
+    public JpaImportEngine(SwiftCodeChunkWriter chunkWriter) {
+        this.chunkWriter = chunkWriter;
+    }
+
+    @Override
+    public ImportEngineType getType() {
+        return ImportEngineType.JPA;
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public ImportSink openSink() {
+        return new ImportSink() {
+            @Override
+            public void write(List<SwiftCode> chunk) {
+                chunkWriter.write(chunk);
+            }
+
+            @Override
+            public void complete() {
+                //every chunk is committed in its own transaction
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
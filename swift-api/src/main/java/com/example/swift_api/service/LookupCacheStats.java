@@ -0,0 +1,64 @@
+package com.example.swift_api.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+//Cache counters since startup. Weights count cached rows for the lookup cache, bytes for the rendered responses
+public class LookupCacheStats {
+    private final boolean enabled;
+    private final long hitCount;
+    private final long missCount;
+    private final double hitRate;
+    private final long evictionCount;
+    private final long evictionWeight;
+    private final long entries;
+    private final long weight;
+    private final long maxWeight;
+
+    LookupCacheStats(boolean enabled, CacheStats stats, long entries, long weight, long maxWeight) {
+        this.enabled = enabled;
+        this.hitCount = stats.hitCount();
+        this.missCount = stats.missCount();
+        this.hitRate = stats.hitRate();
+        this.evictionCount = stats.evictionCount();
+        this.evictionWeight = stats.evictionWeight();
+        this.entries = entries;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public double getHitRate() {
+        return hitRate;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+}
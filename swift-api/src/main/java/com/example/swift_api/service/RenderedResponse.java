@@ -0,0 +1,33 @@
+package com.example.swift_api.service;
+
+//A response body serialised once in one of the response formats and, when it is large enough to be worth it,
+//gzipped. The arrays are shared between requests and must not be modified.
+public class RenderedResponse {
+    private final ResponseFormat format;
+    private final byte[] body;
+    //null when not compressed
+    private final byte[] gzip;
+
+    RenderedResponse(ResponseFormat format, byte[] body, byte[] gzip) {
+        this.format = format;
+        this.body = body;
+        this.gzip = gzip;
+    }
+
+    public ResponseFormat getFormat() {
+        return format;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public byte[] getGzip() {
+        return gzip;
+    }
+
+    //Cache weight: bytes held
+    int weight() {
+        return body.length + (gzip == null ? 0 : gzip.length);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.swift_api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+//Finished response bodies of the hottest endpoints (a code with its branches, a whole country) per response
+//format, so a repeated request is answered by copying bytes instead of building DTOs and running Jackson. Entries are rendered on the
+//first request after they were dropped; the cache is bounded by the bytes it holds.
+//Entries are keyed by the dataset ETag the request read before its data. Dropping entries does not stop a render
+//that is still running, and one built from data of before a change can be stored after the change dropped
+//everything; keyed by the old tag it is never served with the new one.
+@Service
+@Profile("!reactive")
+public class RenderedResponseCache {
+    private final Map<ResponseFormat, ObjectMapper> mappers;
+    private final boolean gzip;
+    private final int gzipMinBytes;
+    private final long maxBytes;
+    //null when the cache is disabled
+    private final Cache<String, RenderedResponse> cache;
+
+    public RenderedResponseCache(ObjectMapper objectMapper,
+                                 @Value("${swift.render-cache.enabled:true}") boolean enabled,
+                                 @Value("${swift.render-cache.max-bytes:67108864}") long maxBytes,
+                                 @Value("${swift.render-cache.gzip:true}") boolean gzip,
+                                 @Value("${swift.render-cache.gzip-min-bytes:1024}") int gzipMinBytes) {
+        this.mappers = ResponseFormat.mappers(objectMapper);
+        this.gzip = gzip;
+        this.gzipMinBytes = gzipMinBytes;
+        this.maxBytes = maxBytes;
+        this.cache = !enabled ? null : Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, RenderedResponse rendered) -> rendered.weight())
+                .recordStats()
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public static String codeKey(String swiftCode) {
+        return "code:" + swiftCode;
+    }
+
+    public static String countryKey(String countryISO2) {
+        return "country:" + countryISO2.toUpperCase(Locale.ROOT);
+    }
+
+    //The cached bytes for key in format at the data version etag (DatasetVersion, read before body() reads any
+    //data), rendered from body() on a miss. Null when body() returns null (nothing to answer with, such as an
+    //unknown code), which is not cached.
+    public RenderedResponse get(String key, String etag, ResponseFormat format, Supplier<Object> body) {
+        if (cache == null) {
+            Object value = body.get();
+            return value == null ? null : render(format, value);
+        }
+        return cache.get(key + "|" + format + "|" + etag, ignored -> {
+            Object value = body.get();
+            return value == null ? null : render(format, value);
+        });
+    }
+
+    public LookupCacheStats getStats() {
+        if (cache == null) {
+            return new LookupCacheStats(false, CacheStats.empty(), 0, 0, 0);
+        }
+        cache.cleanUp();
+        long bytes = cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+        return new LookupCacheStats(true, cache.stats(), cache.estimatedSize(), bytes, maxBytes);
+    }
+
+    //Every change moves the ETag on, after which no entry is requested again; they are dropped to free the bytes
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        if (cache == null) return;
+        cache.invalidateAll();
+    }
+
+    private RenderedResponse render(ResponseFormat format, Object body) {
+        try {
+            byte[] bytes = mappers.get(format).writeValueAsBytes(body);
+            return new RenderedResponse(format, bytes, gzip && bytes.length >= gzipMinBytes ? gzip(bytes) : null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.swift_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+//Encodings of the read endpoints' DTOs. JSON is the default, the binary ones are for clients asking for them
+//in Accept; all three carry the same documents.
+public enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(MediaType.parseMediaType("application/x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    //appended to the ETag, null for the default representation
+    private final String etagSuffix;
+
+    ResponseFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    //The ETag of this representation of the data tagged etag
+    public String etag(String etag) {
+        return etagSuffix == null ? etag : DatasetVersion.variant(etag, etagSuffix);
+    }
+
+    //The format with the highest quality in the Accept header; JSON for wildcards, a missing or unreadable header,
+    //and when only other types are listed (the converters then decide whether to answer 406)
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) return JSON;
+        ResponseFormat best = JSON;
+        double bestQuality = -1;
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                ResponseFormat format = of(type);
+                if (format == null && !type.isWildcardSubtype()) continue;
+                double quality = type.getQualityValue();
+                if (quality > bestQuality) {
+                    best = format == null ? JSON : format;
+                    bestQuality = quality;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return best;
+    }
+
+    //The format written as this content type, null if none is
+    public static ResponseFormat of(MediaType contentType) {
+        if (contentType == null) return null;
+        for (ResponseFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(contentType)) return format;
+        }
+        return null;
+    }
+
+    //A mapper per format with the configuration of the given JSON mapper
+    public static Map<ResponseFormat, ObjectMapper> mappers(ObjectMapper json) {
+        Map<ResponseFormat, ObjectMapper> mappers = new EnumMap<>(ResponseFormat.class);
+        mappers.put(JSON, json);
+        mappers.put(CBOR, json.copyWith(new CBORFactory()));
+        mappers.put(SMILE, json.copyWith(new SmileFactory()));
+        return mappers;
+    }
+}
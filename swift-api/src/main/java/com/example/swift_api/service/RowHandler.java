@@ -0,0 +1,7 @@
+package com.example.swift_api.service;
+
+@FunctionalInterface
+public interface RowHandler {
+    //cells are indexed by column, missing or blank cells are null; the array may be reused between rows
+    void handleRow(int rowNum, String[] cells);
+}
@@ -0,0 +1,206 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Maps parsed rows to entities and tracks HQ linkage and delta state for one import; safe to share between threads
+class RowProcessor {
+    private static final String NO_HEADQUARTERS = "";
+
+    private final ImportProgress progress;
+    private final Map<String, String> hqMap = new ConcurrentHashMap<>();
+    //prefixes of branches processed before their HQ row was seen, and in delta mode of written HQs whose
+    //unchanged branches are not rewritten; linked once the whole file is read
+    private final Set<String> prefixesToLink = ConcurrentHashMap.newKeySet();
+    //delta mode: code -> content hash of rows in the database not seen in the file yet, null in full mode
+    private final Map<String, Long> existingHashes;
+    //delta mode: code -> content hash of its latest row in the file, so a repeated code is counted once
+    private final Map<String, Long> fileHashes = new ConcurrentHashMap<>();
+    //delta mode: a row without a SWIFT code was skipped, it may have been meant for any row in the database
+    private volatile boolean unidentifiedRowSkipped;
+    //null disables lookups of headquarters stored before this import
+    private final HeadquartersResolver resolver;
+    //prefix -> HQ code already in the database, NO_HEADQUARTERS when there is none, so each prefix is looked up once
+    private final Map<String, String> databaseHeadquarters = new ConcurrentHashMap<>();
+
+    RowProcessor(ImportProgress progress, Map<String, Long> existingHashes) {
+        this(progress, existingHashes, null);
+    }
+
+    RowProcessor(ImportProgress progress, Map<String, Long> existingHashes, HeadquartersResolver resolver) {
+        this.progress = progress;
+        this.resolver = resolver;
+        this.existingHashes = existingHashes == null || existingHashes instanceof ConcurrentHashMap
+                ? existingHashes : new ConcurrentHashMap<>(existingHashes);
+    }
+
+    //Returns the entity to write, or null when the row is the header, invalid or unchanged
+    SwiftCode process(int rowNum, String[] cells) {
+        if (rowNum == 0) return null;
+        progress.rowParsed();
+
+        SwiftCode swiftCode = toSwiftCode(rowNum, cells);
+        if (swiftCode == null) {
+            progress.rowSkipped();
+            keepSkippedCode(cells);
+            return null;
+        }
+
+        String code = swiftCode.getSwiftCode();
+        String prefix = HeadquartersResolver.bankPrefix(code);
+        if (prefix != null) {
+            if (swiftCode.isHeadquarter()) {
+                hqMap.put(prefix, code);
+            } else {
+                String hqCode = hqMap.get(prefix);
+                if (hqCode != null) {
+                    swiftCode.setHqSwiftCode(hqCode);
+                } else {
+                    prefixesToLink.add(prefix);
+                }
+            }
+        }
+
+        if (existingHashes != null) {
+            if (!isChanged(swiftCode)) {
+                return null;
+            }
+            if (swiftCode.isHeadquarter() && prefix != null) {
+                prefixesToLink.add(prefix);
+            }
+        }
+        return swiftCode;
+    }
+
+    //Links the chunk's branches whose HQ was not in the file so far to an HQ already in the database,
+    //with one lookup for all of the chunk's prefixes that were not looked up before
+    void resolveHeadquarters(List<SwiftCode> chunk) {
+        if (resolver == null) return;
+
+        Set<String> unknownPrefixes = new HashSet<>();
+        for (SwiftCode swiftCode : chunk) {
+            String prefix = orphanPrefix(swiftCode);
+            if (prefix != null && !databaseHeadquarters.containsKey(prefix)) {
+                unknownPrefixes.add(prefix);
+            }
+        }
+        if (!unknownPrefixes.isEmpty()) {
+            Map<String, String> found = resolver.findHeadquarters(unknownPrefixes);
+            for (String prefix : unknownPrefixes) {
+                databaseHeadquarters.put(prefix, found.getOrDefault(prefix, NO_HEADQUARTERS));
+            }
+        }
+
+        for (SwiftCode swiftCode : chunk) {
+            String prefix = orphanPrefix(swiftCode);
+            if (prefix == null) continue;
+
+            String hqCode = hqMap.getOrDefault(prefix, databaseHeadquarters.get(prefix));
+            if (hqCode != null && !hqCode.equals(NO_HEADQUARTERS)) {
+                swiftCode.setHqSwiftCode(hqCode);
+            }
+        }
+    }
+
+    private static String orphanPrefix(SwiftCode swiftCode) {
+        if (swiftCode.isHeadquarter() || swiftCode.getHqSwiftCode() != null) return null;
+        return HeadquartersResolver.bankPrefix(swiftCode.getSwiftCode());
+    }
+
+    //prefix -> HQ code for every prefix that needs a link update after the rows are written
+    Map<String, String> lateLinks() {
+        Map<String, String> lateLinks = new HashMap<>();
+        for (String prefix : prefixesToLink) {
+            String hqCode = hqMap.get(prefix);
+            if (hqCode != null) {
+                lateLinks.put(prefix, hqCode);
+            }
+        }
+        return lateLinks;
+    }
+
+    //Delta mode: codes in the database that did not appear in the file, also not on a skipped row
+    Set<String> missingCodes() {
+        return existingHashes == null ? Set.of() : existingHashes.keySet();
+    }
+
+    //Delta mode: a row was skipped whose code is unknown, so missingCodes() may hold codes the file meant to keep
+    boolean isUnidentifiedRowSkipped() {
+        return unidentifiedRowSkipped;
+    }
+
+    //A skipped row still names a code that is in the file, its row in the database is not missing
+    private void keepSkippedCode(String[] cells) {
+        if (existingHashes == null) return;
+        String swiftCodeValue = cells[1];
+        if (swiftCodeValue != null && !swiftCodeValue.isBlank()) {
+            existingHashes.remove(swiftCodeValue);
+            existingHashes.remove(swiftCodeValue.strip().toUpperCase(Locale.ROOT));
+            return;
+        }
+        for (String cell : cells) {
+            if (cell != null && !cell.isBlank()) {
+                unidentifiedRowSkipped = true;
+                return;
+            }
+        }
+        //an empty row, not meant for any code
+    }
+
+    private boolean isChanged(SwiftCode swiftCode) {
+        long hash = SwiftCodeHasher.hash(swiftCode);
+        Long previousHash = fileHashes.put(swiftCode.getSwiftCode(), hash);
+        if (previousHash != null) {
+            //a repeated code was counted at its first row; written again only if this row differs, so the last wins
+            return previousHash != hash;
+        }
+        Long existingHash = existingHashes.remove(swiftCode.getSwiftCode());
+        if (existingHash == null) {
+            progress.rowInserted();
+            return true;
+        }
+        if (existingHash == hash) {
+            progress.rowUnchanged();
+            return false;
+        }
+        progress.rowUpdated();
+        return true;
+    }
+
+    private static SwiftCode toSwiftCode(int rowNum, String[] cells) {
+        String countryISO2 = cells[0];
+        String swiftCodeValue = cells[1];
+        String bankName = cells[3];
+        String address = cells[4];
+        String countryName = cells[6];
+
+        if (countryISO2 == null) countryISO2 = "UNKNOWN";
+        if (swiftCodeValue == null) {
+            System.out.println("Skipping row " + rowNum + ": SWIFT code is missing.");
+            return null;
+        }
+        if (!BicValidator.isValid(swiftCodeValue)) {
+            System.out.println("Skipping row " + rowNum + ": invalid SWIFT code " + swiftCodeValue + ".");
+            return null;
+        }
+        if (bankName == null) bankName = "UNKNOWN BANK";
+        if (address == null) address = "UNKNOWN ADDRESS";
+        if (countryName == null) countryName = "UNKNOWN COUNTRY";
+
+        SwiftCode swiftCode = new SwiftCode();
+        swiftCode.setHeadquarter(swiftCodeValue.endsWith("XXX"));
+        swiftCode.setCountryISO2(countryISO2);
+        swiftCode.setSwiftCode(swiftCodeValue);
+        swiftCode.setBankName(bankName);
+        swiftCode.setAddress(address);
+        swiftCode.setCountryName(countryName);
+        return swiftCode;
+    }
+}
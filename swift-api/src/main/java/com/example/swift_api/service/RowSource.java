@@ -0,0 +1,9 @@
+package com.example.swift_api.service;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface RowSource {
+    //Emits every row of the file, header included, to the handler from the calling thread
+    void read(RowHandler handler) throws IOException;
+}
@@ -0,0 +1,72 @@
+package com.example.swift_api.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+//Throughput of one pipeline stage; busy time excludes time spent waiting on the queues
+public class StageStats {
+    private final String name;
+    private final int threads;
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicLong firstStartNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastEndNanos = new AtomicLong(Long.MIN_VALUE);
+
+    public StageStats(String name, int threads) {
+        this.name = name;
+        this.threads = threads;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBusyMillis() {
+        return busyNanos.get() / 1_000_000;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos() / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return rows.get() * 1e9 / Math.max(1, elapsedNanos());
+    }
+
+    //Share of the stage's thread time spent working, close to 1 for the bottleneck stage
+    public double getUtilisation() {
+        return busyNanos.get() / (double) Math.max(1, elapsedNanos() * threads);
+    }
+
+    void threadStarted() {
+        firstStartNanos.accumulateAndGet(System.nanoTime(), Math::min);
+    }
+
+    void threadFinished() {
+        lastEndNanos.accumulateAndGet(System.nanoTime(), Math::max);
+    }
+
+    void record(int rowCount, long nanos) {
+        rows.addAndGet(rowCount);
+        busyNanos.addAndGet(nanos);
+    }
+
+    private long elapsedNanos() {
+        long start = firstStartNanos.get();
+        long end = lastEndNanos.get();
+        return start == Long.MAX_VALUE || end < start ? 0 : end - start;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d thread(s), %d rows in %d ms, %.0f rows/s, %.0f%% busy",
+                name, threads, getRows(), getElapsedMillis(), getRowsPerSecond(), getUtilisation() * 100);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Profile("!reactive")
+public class SwiftCodeChunkWriter {
+    private static final String LINK_BRANCHES_SQL =
+            "UPDATE swift_codes SET hq_swift_code = ? " +
+            "WHERE substring(swift_code, 1, 8) = ? AND is_headquarter = false " +
+            "AND (hq_swift_code IS NULL OR hq_swift_code <> ?)";
+
+    private final SwiftCodeRepository swiftCodeRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    public SwiftCodeChunkWriter(SwiftCodeRepository swiftCodeRepository, EntityManager entityManager,
+                                JdbcTemplate jdbcTemplate) {
+        this.swiftCodeRepository = swiftCodeRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    //One SELECT for the whole chunk, new rows are batch-inserted and existing rows batch-updated on flush
+    @Transactional
+    public void write(List<SwiftCode> chunk) {
+        Map<String, SwiftCode> rows = new HashMap<>();
+        for (SwiftCode swiftCode : chunk) {
+            SwiftCode duplicate = rows.putIfAbsent(swiftCode.getSwiftCode(), swiftCode);
+            if (duplicate != null) {
+                copyFields(swiftCode, duplicate);
+            }
+        }
+
+        for (SwiftCode existing : swiftCodeRepository.findAllById(rows.keySet())) {
+            copyFields(rows.remove(existing.getSwiftCode()), existing);
+        }
+        for (SwiftCode swiftCode : rows.values()) {
+            entityManager.persist(swiftCode);
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    //Sets hqSwiftCode on every branch sharing the 8-character bank prefix, keyed prefix -> HQ code
+    @Transactional
+    public void linkBranches(Map<String, String> hqByPrefix) {
+        if (hqByPrefix.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(hqByPrefix.size());
+        hqByPrefix.forEach((prefix, hqCode) -> args.add(new Object[]{hqCode, prefix, hqCode}));
+        jdbcTemplate.batchUpdate(LINK_BRANCHES_SQL, args);
+    }
+
+    private static void copyFields(SwiftCode from, SwiftCode to) {
+        to.setBankName(from.getBankName());
+        to.setCountryISO2(from.getCountryISO2());
+        to.setCountryName(from.getCountryName());
+        to.setAddress(from.getAddress());
+        to.setHeadquarter(from.isHeadquarter());
+        to.setHqSwiftCode(from.getHqSwiftCode());
+    }
+}
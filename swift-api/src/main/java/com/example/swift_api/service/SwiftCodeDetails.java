@@ -0,0 +1,30 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+
+import java.util.List;
+
+//A SWIFT code as returned by GET /v1/swift-codes/{swiftCode}: the code and, for a headquarters, its branches.
+//Instances are shared through the lookup cache and must not be modified.
+public class SwiftCodeDetails {
+    private final SwiftCode swiftCode;
+    private final List<SwiftCode> branches;
+
+    public SwiftCodeDetails(SwiftCode swiftCode, List<SwiftCode> branches) {
+        this.swiftCode = swiftCode;
+        this.branches = List.copyOf(branches);
+    }
+
+    public SwiftCode getSwiftCode() {
+        return swiftCode;
+    }
+
+    public List<SwiftCode> getBranches() {
+        return branches;
+    }
+
+    //Cache weight: one per row held
+    int weight() {
+        return 1 + branches.size();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+
+//64-bit FNV-1a over the business fields of a row, used to detect changed rows without comparing field by field
+public final class SwiftCodeHasher {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private SwiftCodeHasher() {}
+
+    public static long hash(SwiftCode swiftCode) {
+        return hash(swiftCode.getBankName(), swiftCode.getCountryISO2(), swiftCode.getCountryName(),
+                swiftCode.getAddress(), swiftCode.isHeadquarter());
+    }
+
+    public static long hash(String bankName, String countryISO2, String countryName, String address,
+                            boolean isHeadquarter) {
+        long hash = OFFSET_BASIS;
+        hash = mix(hash, bankName);
+        hash = mix(hash, countryISO2);
+        hash = mix(hash, countryName);
+        hash = mix(hash, address);
+        return (hash ^ (isHeadquarter ? 1 : 0)) * PRIME;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                hash = (hash ^ (c & 0xff)) * PRIME;
+                hash = (hash ^ (c >>> 8)) * PRIME;
+            }
+        }
+        //field separator, so ("ab", "c") and ("a", "bc") hash differently; null and "" differ too
+        return (hash ^ (value == null ? 0x1e : 0x1f)) * PRIME;
+    }
+}
@@ -1,88 +1,189 @@
 package com.example.swift_api.service;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import com.example.swift_api.model.SwiftCode;
-import com.example.swift_api.repository.SwiftCodeRepository;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
+import java.util.Set;
 
 @Service
+@Profile("!reactive")
 public class SwiftCodeImportService {
-    private final SwiftCodeRepository swiftCodeRepository;
+    private static final Logger log = LoggerFactory.getLogger(SwiftCodeImportService.class);
+    private static final int COLUMN_COUNT = 7;
+
+    private final Map<ImportEngineType, ImportEngine> engines = new EnumMap<>(ImportEngineType.class);
+    private final SwiftCodeChunkWriter chunkWriter;
+    private final DeltaImportSupport deltaSupport;
+    private final HeadquartersResolver headquartersResolver;
+    private final ImportPipeline pipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean streaming;
+    private final int chunkSize;
+    private final ImportEngineType defaultEngine;
+    private final boolean pipelined;
+
+    public SwiftCodeImportService(List<ImportEngine> engines,
+                                  SwiftCodeChunkWriter chunkWriter,
+                                  DeltaImportSupport deltaSupport,
+                                  HeadquartersResolver headquartersResolver,
+                                  ImportPipeline pipeline,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Value("${swift.import.streaming:true}") boolean streaming,
+                                  @Value("${swift.import.chunk-size:1000}") int chunkSize,
+                                  @Value("${swift.import.engine:jpa}") ImportEngineType defaultEngine,
+                                  @Value("${swift.import.pipeline.enabled:false}") boolean pipelined) {
+        for(ImportEngine engine : engines){
+            this.engines.put(engine.getType(), engine);
+        }
+        this.chunkWriter = chunkWriter;
+        this.deltaSupport = deltaSupport;
+        this.headquartersResolver = headquartersResolver;
+        this.pipeline = pipeline;
+        this.eventPublisher = eventPublisher;
+        this.streaming = streaming;
+        this.chunkSize = chunkSize;
+        this.defaultEngine = defaultEngine;
+        this.pipelined = pipelined;
+    }
 
-    public SwiftCodeImportService(SwiftCodeRepository swiftCodeRepository) {
-        this.swiftCodeRepository = swiftCodeRepository;
+    public ImportProgress importSwiftCodes(MultipartFile file){
+        return importSwiftCodes(file, new ImportOptions());
     }
 
-    public void importSwiftCodes(MultipartFile file){
+    public ImportProgress importSwiftCodes(MultipartFile file, ImportOptions options){
         if(file.isEmpty()){
             throw new RuntimeException("Uploaded file is empty");
         }
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)){
-
-            Sheet sheet = workbook.getSheetAt(0);
-            List<SwiftCode> swiftCodes = new ArrayList<>();
-            Map<String, String> hqMap = new HashMap<>();
+        if(options.getFormat() == null){
+            options.setFormat(ImportFormat.fromFileName(file.getOriginalFilename()));
+        }
+        Path tempFile = null;
+        try {
+            tempFile = TempFiles.spool(file);
+            ImportProgress progress = new ImportProgress();
+            importSwiftCodes(tempFile, options, progress);
+            return progress;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to import SWIFT codes from " + options.getFormat() + " file", e);
+        } finally {
+            TempFiles.deleteQuietly(tempFile);
+        }
+    }
 
-            for(Row row : sheet){
-                if(row.getRowNum() == 0) continue;
+    public void importSwiftCodes(Path file, ImportOptions options, ImportProgress progress) throws IOException {
+        try {
+            ImportEngine engine = resolveEngine(options.getEngine());
+            Map<String, Long> existingHashes =
+                    options.getMode() == ImportMode.DELTA ? deltaSupport.loadContentHashes() : null;
+            RowProcessor processor = new RowProcessor(progress, existingHashes, headquartersResolver);
+            RowSource source = rowSource(file, options.getFormat() != null ? options.getFormat() : ImportFormat.XLSX);
+
+            boolean pipelined = options.getPipelined() != null ? options.getPipelined() : this.pipelined;
+            if(pipelined){
+                List<StageStats> stages = pipeline.run(source, processor, engine, chunkSize, progress);
+                progress.setStages(stages);
+            }
+            else{
+                importSequentially(source, processor, engine, progress);
+            }
 
-                SwiftCode swiftCode = new SwiftCode();
+            Set<String> missingCodes = processor.missingCodes();
+            if(options.isDeleteMissing() && !missingCodes.isEmpty()){
+                if(processor.isUnidentifiedRowSkipped()){
+                    log.warn("Not deleting {} codes missing from the file: rows without a SWIFT code were skipped.",
+                            missingCodes.size());
+                }
+                else{
+                    deltaSupport.deleteCodes(missingCodes, chunkSize);
+                    progress.rowsDeleted(missingCodes.size());
+                }
+            }
 
-                String countryISO2 = getCellValue(row, 0);
-                String swiftCodeValue = getCellValue(row, 1);
-                String bankName = getCellValue(row, 3);
-                String address = getCellValue(row, 4);
-                String countryName = getCellValue(row, 6);
+            chunkWriter.linkBranches(processor.lateLinks());
+        } finally {
+            //also after a failure, earlier chunks may have been written
+            eventPublisher.publishEvent(SwiftCodesChangedEvent.bulk());
+        }
+    }
 
-                if (countryISO2 == null) countryISO2 = "UNKNOWN";
-                if (swiftCodeValue == null) {
-                    System.out.println("Skipping row " + row.getRowNum() + ": SWIFT code is missing.");
-                    continue;
+    private void importSequentially(RowSource source, RowProcessor processor, ImportEngine engine,
+                                    ImportProgress progress) throws IOException {
+        List<SwiftCode> chunk = new ArrayList<>(chunkSize);
+
+        try (ImportSink sink = engine.openSink()) {
+            source.read((rowNum, cells) -> {
+                SwiftCode swiftCode = processor.process(rowNum, cells);
+                if(swiftCode == null) return;
+
+                chunk.add(swiftCode);
+                if(chunk.size() >= chunkSize){
+                    processor.resolveHeadquarters(chunk);
+                    sink.write(chunk);
+                    progress.rowsPersisted(chunk.size());
+                    chunk.clear();
                 }
-                if (bankName == null) bankName = "UNKNOWN BANK";
-                if (address == null) address = "UNKNOWN ADDRESS";
-                if (countryName == null) countryName = "UNKNOWN COUNTRY";
+            });
 
-                boolean isHeadquarter = swiftCodeValue.endsWith("XXX");
-                swiftCode.setHeadquarter(isHeadquarter);
+            if(!chunk.isEmpty()){
+                processor.resolveHeadquarters(chunk);
+                sink.write(chunk);
+                progress.rowsPersisted(chunk.size());
+            }
+            sink.complete();
+        }
+    }
 
-                if(isHeadquarter && swiftCodeValue.length() >= 8){
-                    hqMap.put(swiftCodeValue.substring(0,8), swiftCodeValue);
-                }
+    private RowSource rowSource(Path file, ImportFormat format){
+        return switch (format) {
+            case CSV -> handler -> new DelimitedFileReader(COLUMN_COUNT, ',').read(file, handler);
+            case TSV -> handler -> new DelimitedFileReader(COLUMN_COUNT, '\t').read(file, handler);
+            case XLSX -> streaming
+                    ? handler -> new XlsxStreamingReader(COLUMN_COUNT).read(file.toFile(), handler)
+                    : handler -> readWorkbook(file, handler);
+        };
+    }
 
-                swiftCode.setCountryISO2(countryISO2);
-                swiftCode.setSwiftCode(swiftCodeValue);
-                swiftCode.setBankName(bankName);
-                swiftCode.setAddress(address);
-                swiftCode.setCountryName(countryName);
+    private ImportEngine resolveEngine(ImportEngineType requested){
+        ImportEngineType type = requested != null ? requested : defaultEngine;
+        ImportEngine engine = engines.get(type);
+        if(engine == null || !engine.isAvailable()){
+            log.warn("Import engine {} is not available for this database, using JPA instead.", type);
+            engine = engines.get(ImportEngineType.JPA);
+        }
+        return engine;
+    }
 
-                swiftCodes.add(swiftCode);
-            }
+    private void readWorkbook(Path file, RowHandler rowHandler) throws IOException {
+        try (InputStream is = Files.newInputStream(file);
+             Workbook workbook = new XSSFWorkbook(is)){
+
+            Sheet sheet = workbook.getSheetAt(0);
+            String[] cells = new String[COLUMN_COUNT];
 
-            for(SwiftCode code : swiftCodes){
-                if(!code.isHeadquarter() && code.getSwiftCode().length() >= 8){
-                    String hqCode = hqMap.get(code.getSwiftCode().substring(0, 8));
-                    if (hqCode != null) {
-                        code.setHqSwiftCode(hqCode);
-                    }
+            for(Row row : sheet){
+                for(int i = 0; i < COLUMN_COUNT; i++){
+                    cells[i] = getCellValue(row, i);
                 }
+                rowHandler.handleRow(row.getRowNum(), cells);
             }
-
-            swiftCodeRepository.saveAll(swiftCodes);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to import SWIFT codes from Excel file", e);
         }
     }
 
@@ -92,16 +193,21 @@ public class SwiftCodeImportService {
         }
 
         Cell cell = row.getCell(cellIndex);
+        String value;
         switch (cell.getCellType()) {
             case STRING:
-                return cell.getStringCellValue().trim();
+                value = cell.getStringCellValue().trim();
+                break;
             case NUMERIC:
-                return String.valueOf((long) cell.getNumericCellValue());
+                value = String.valueOf((long) cell.getNumericCellValue());
+                break;
             case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
+                value = String.valueOf(cell.getBooleanCellValue());
+                break;
             default:
                 return null;
         }
+        return value.isEmpty() ? null : value;
     }
 
 }
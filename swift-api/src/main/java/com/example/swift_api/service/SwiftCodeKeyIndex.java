@@ -0,0 +1,59 @@
+package com.example.swift_api.service;
+
+//Hash index from BicCodec keys to record offsets, for a fixed set of codes: two parallel primitive arrays with linear
+//probing, at most three quarters full. An entry costs 12 bytes per slot instead of a HashMap node and table slot,
+//and a lookup compares longs where a HashMap hashes and compares Strings.
+public final class SwiftCodeKeyIndex {
+    public static final int ABSENT = -1;
+    //BicCodec never produces 0, so it marks a free slot
+    private static final long FREE = 0;
+
+    private final long[] keys;
+    private final int[] offsets;
+    private final int shift;
+    private final int size;
+
+    //keys[i] gets offset i; BicCodec.INVALID keys are left out
+    public SwiftCodeKeyIndex(long[] keys) {
+        int capacity = 2;
+        while (capacity * 3L / 4 < keys.length) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.offsets = new int[capacity];
+        this.shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        int size = 0;
+        for (int offset = 0; offset < keys.length; offset++) {
+            long key = keys[offset];
+            if (key == BicCodec.INVALID || key == FREE) continue;
+            int slot = slot(key);
+            while (this.keys[slot] != FREE && this.keys[slot] != key) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (this.keys[slot] == FREE) size++;
+            this.keys[slot] = key;
+            this.offsets[slot] = offset;
+        }
+        this.size = size;
+    }
+
+    public int offsetOf(long key) {
+        if (key == BicCodec.INVALID || key == FREE) return ABSENT;
+        int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long stored = keys[slot];
+            if (stored == key) return offsets[slot];
+            if (stored == FREE) return ABSENT;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //Fibonacci hashing: the top bits of the key times 2^64 / golden ratio, which spreads keys of codes that only
+    //differ in their last characters
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+}
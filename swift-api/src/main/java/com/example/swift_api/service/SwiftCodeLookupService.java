@@ -0,0 +1,234 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Reads for the lookup endpoints: from the in-memory snapshot when that mode is on, otherwise from the database
+//through a read-through cache of single code lookups. Misses are cached too, so repeated checks of unknown
+//codes do not reach the database either.
+//Invalidation does not stop a load that is already running, except cache.invalidate(code) for a single load of
+//that code. So every entry carries the change count from before its load: a batch load is only stored if no
+//change came in meanwhile, and an entry loaded before the last bulk change is treated as a miss.
+@Service
+@Profile("!reactive")
+public class SwiftCodeLookupService {
+    //codes per IN query of a batch lookup
+    static final int BATCH_QUERY_SIZE = 1000;
+
+    private final SwiftCodeRepository swiftCodeRepository;
+    private final SwiftCodeSnapshotService snapshotService;
+    private final long maxWeight;
+    //null when the cache is disabled
+    private final Cache<String, Loaded> cache;
+    //moved on by every change before its entries are dropped
+    private final AtomicLong changes = new AtomicLong();
+    //the value of changes after the last bulk change
+    private volatile long lastBulkChange;
+
+    public SwiftCodeLookupService(SwiftCodeRepository swiftCodeRepository,
+                                  SwiftCodeSnapshotService snapshotService,
+                                  @Value("${swift.cache.enabled:true}") boolean enabled,
+                                  @Value("${swift.cache.max-weight:200000}") long maxWeight,
+                                  @Value("${swift.cache.ttl:10m}") Duration ttl) {
+        this.swiftCodeRepository = swiftCodeRepository;
+        this.snapshotService = snapshotService;
+        this.maxWeight = maxWeight;
+        this.cache = !enabled ? null : Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String code, Loaded loaded) -> loaded.details.map(SwiftCodeDetails::weight).orElse(1))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<SwiftCodeDetails> findDetails(String swiftCode) {
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findDetails(swiftCode);
+        }
+        if (cache == null) {
+            return load(swiftCode);
+        }
+        Loaded loaded = cache.get(swiftCode, this::loadStamped);
+        if (loaded.changes < lastBulkChange) {
+            //loaded before a bulk change and stored after it dropped everything
+            cache.asMap().remove(swiftCode, loaded);
+            loaded = cache.get(swiftCode, this::loadStamped);
+        }
+        return loaded.details;
+    }
+
+    //Batch form of findDetails, codes that do not exist are left out of the result. Cached codes are served from
+    //the cache, the others are loaded together with a few IN queries and cached as well.
+    public Map<String, SwiftCodeDetails> findAllDetails(Collection<String> swiftCodes) {
+        Map<String, Optional<SwiftCodeDetails>> details;
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            details = new HashMap<>();
+            for (String swiftCode : swiftCodes) {
+                details.put(swiftCode, snapshot.get().findDetails(swiftCode));
+            }
+        } else if (cache == null) {
+            details = loadAll(Set.copyOf(swiftCodes));
+        } else {
+            details = new HashMap<>();
+            Set<String> missing = new HashSet<>();
+            Map<String, Loaded> cached = cache.getAllPresent(swiftCodes);
+            for (String swiftCode : swiftCodes) {
+                Loaded loaded = cached.get(swiftCode);
+                if (loaded != null && loaded.changes >= lastBulkChange) {
+                    details.put(swiftCode, loaded.details);
+                } else {
+                    missing.add(swiftCode);
+                }
+            }
+            if (!missing.isEmpty()) {
+                long startChanges = changes.get();
+                Map<String, Optional<SwiftCodeDetails>> loaded = loadAll(missing);
+                details.putAll(loaded);
+                //per code atomic with cache.invalidate(code): a change either sees the entry or is seen here
+                loaded.forEach((swiftCode, codeDetails) -> cache.asMap().compute(swiftCode, (code, current) ->
+                        changes.get() == startChanges ? new Loaded(codeDetails, startChanges) : current));
+            }
+        }
+
+        Map<String, SwiftCodeDetails> found = new HashMap<>();
+        details.forEach((swiftCode, code) -> code.ifPresent(value -> found.put(swiftCode, value)));
+        return found;
+    }
+
+    public List<SwiftCode> findByCountry(String countryISO2) {
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findByCountry(countryISO2);
+        }
+        return swiftCodeRepository.findByCountryISO2IgnoreCase(countryISO2);
+    }
+
+    //One page of a country in code order, starting after afterSwiftCode ("" for the first page)
+    public List<SwiftCode> findCountryPage(String countryISO2, String afterSwiftCode, int limit) {
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get().findCountryPage(countryISO2, afterSwiftCode, limit);
+        }
+        return swiftCodeRepository.findCountryPage(countryISO2, afterSwiftCode, Limit.of(limit));
+    }
+
+    public LookupCacheStats getStats() {
+        if (cache == null) {
+            return new LookupCacheStats(false, CacheStats.empty(), 0, 0, 0);
+        }
+        //run pending evictions first so the counters are up to date
+        cache.cleanUp();
+        long weight = cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+        return new LookupCacheStats(true, cache.stats(), cache.estimatedSize(), weight, maxWeight);
+    }
+
+    //After commit, so a lookup that starts later reads the new data; see the class comment for loads already running.
+    //A headquarters entry lists its branches, so a changed branch also drops its bank's XXX entry.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        if (cache == null) return;
+        long change = changes.incrementAndGet();
+        if (event.isBulk()) {
+            lastBulkChange = change;
+            cache.invalidateAll();
+            return;
+        }
+        for (String swiftCode : event.getSwiftCodes()) {
+            cache.invalidate(swiftCode);
+            String bankPrefix = HeadquartersResolver.bankPrefix(swiftCode);
+            if (bankPrefix != null && !swiftCode.endsWith(HeadquartersResolver.HQ_SUFFIX)) {
+                cache.invalidate(bankPrefix + HeadquartersResolver.HQ_SUFFIX);
+            }
+        }
+    }
+
+    //Per chunk one query for the codes together with the branches of the headquarters among them
+    private Map<String, Optional<SwiftCodeDetails>> loadAll(Set<? extends String> swiftCodes) {
+        Map<String, Optional<SwiftCodeDetails>> details = new HashMap<>();
+        List<String> codes = new ArrayList<>(swiftCodes);
+        for (int from = 0; from < codes.size(); from += BATCH_QUERY_SIZE) {
+            List<String> chunk = codes.subList(from, Math.min(codes.size(), from + BATCH_QUERY_SIZE));
+            Set<String> requested = Set.copyOf(chunk);
+            Map<String, SwiftCode> found = new HashMap<>();
+            Map<String, List<SwiftCode>> branchesByHq = new HashMap<>();
+            Set<String> seen = new HashSet<>();
+            for (SwiftCode row : swiftCodeRepository.findAllWithBranches(chunk)) {
+                //a requested branch of a requested headquarters comes twice, its first copy takes both roles
+                if (!seen.add(row.getSwiftCode())) {
+                    continue;
+                }
+                if (requested.contains(row.getSwiftCode())) {
+                    found.put(row.getSwiftCode(), row);
+                }
+                if (row.getHqSwiftCode() != null && requested.contains(row.getHqSwiftCode())) {
+                    branchesByHq.computeIfAbsent(row.getHqSwiftCode(), hq -> new ArrayList<>()).add(row);
+                }
+            }
+
+            for (String swiftCode : chunk) {
+                SwiftCode code = found.get(swiftCode);
+                details.put(swiftCode, code == null ? Optional.empty()
+                        : Optional.of(details(code, branchesByHq.getOrDefault(swiftCode, List.of()))));
+            }
+        }
+        return details;
+    }
+
+    private Loaded loadStamped(String swiftCode) {
+        long startChanges = changes.get();
+        return new Loaded(load(swiftCode), startChanges);
+    }
+
+    private Optional<SwiftCodeDetails> load(String swiftCode) {
+        SwiftCode code = null;
+        List<SwiftCode> branches = new ArrayList<>();
+        for (SwiftCode row : swiftCodeRepository.findWithBranches(swiftCode)) {
+            if (row.getSwiftCode().equals(swiftCode)) {
+                code = row;
+            } else {
+                branches.add(row);
+            }
+        }
+        return code == null ? Optional.empty() : Optional.of(details(code, branches));
+    }
+
+    //Only a headquarters lists branches
+    public static SwiftCodeDetails details(SwiftCode code, List<SwiftCode> branches) {
+        return new SwiftCodeDetails(code, code.isHeadquarter() ? branches : List.of());
+    }
+
+    //A cache entry with the change count read before it was loaded
+    private static final class Loaded {
+        final Optional<SwiftCodeDetails> details;
+        final long changes;
+
+        Loaded(Optional<SwiftCodeDetails> details, long changes) {
+            this.details = details;
+            this.changes = changes;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+//All SWIFT codes in one sorted array, for prefix search without the database. A search is a binary search to the
+//first match and a scan from there. Adds and deletes insert or remove single codes in a copy of the array; an
+//import replaces the array with the codes read back in one query and sorted in Java. Readers never wait for either.
+@Service
+@Profile("!reactive")
+public class SwiftCodePrefixIndex {
+    private final SwiftCodeRepository swiftCodeRepository;
+    //one writer of the array at a time; held while the changed codes are looked up
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private volatile String[] codes = new String[0];
+
+    public SwiftCodePrefixIndex(SwiftCodeRepository swiftCodeRepository) {
+        this.swiftCodeRepository = swiftCodeRepository;
+    }
+
+    //Up to limit codes starting with prefix (case-insensitive), in code order
+    public List<String> search(String prefix, int limit) {
+        String[] codes = this.codes;
+        String key = prefix.toUpperCase(Locale.ROOT);
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = firstAtOrAfter(codes, key); i < codes.length && matches.size() < limit; i++) {
+            if (!codes[i].startsWith(key)) break;
+            matches.add(codes[i]);
+        }
+        return matches;
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        updateLock.lock();
+        try {
+            reload();
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        updateLock.lock();
+        try {
+            if (event.isBulk()) {
+                reload();
+                return;
+            }
+            //a code in the event was added or deleted, the database says which
+            Set<String> stored = new HashSet<>();
+            swiftCodeRepository.findAllById(event.getSwiftCodes()).forEach(code -> stored.add(code.getSwiftCode()));
+            String[] updated = codes;
+            for (String swiftCode : event.getSwiftCodes()) {
+                updated = stored.contains(swiftCode) ? insert(updated, swiftCode) : remove(updated, swiftCode);
+            }
+            codes = updated;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private void reload() {
+        String[] loaded = swiftCodeRepository.findAllSwiftCodes().toArray(new String[0]);
+        //the binary searches need String.compareTo order; the database sorts by its collation, which differs for
+        //lower case or other characters in codes stored before validation. Already sorted input costs one pass.
+        Arrays.sort(loaded);
+        codes = loaded;
+    }
+
+    private static String[] insert(String[] codes, String swiftCode) {
+        int index = Arrays.binarySearch(codes, swiftCode);
+        if (index >= 0) return codes;
+        int at = -index - 1;
+        String[] updated = new String[codes.length + 1];
+        System.arraycopy(codes, 0, updated, 0, at);
+        updated[at] = swiftCode;
+        System.arraycopy(codes, at, updated, at + 1, codes.length - at);
+        return updated;
+    }
+
+    private static String[] remove(String[] codes, String swiftCode) {
+        int at = Arrays.binarySearch(codes, swiftCode);
+        if (at < 0) return codes;
+        String[] updated = new String[codes.length - 1];
+        System.arraycopy(codes, 0, updated, 0, at);
+        System.arraycopy(codes, at + 1, updated, at, codes.length - at - 1);
+        return updated;
+    }
+
+    private static int firstAtOrAfter(String[] codes, String key) {
+        int index = Arrays.binarySearch(codes, key);
+        return index >= 0 ? index : -index - 1;
+    }
+}
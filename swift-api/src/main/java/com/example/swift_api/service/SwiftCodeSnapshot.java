@@ -0,0 +1,113 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+//Immutable copy of swift_codes, indexed the way the read endpoints query it. Changes build a new snapshot.
+public final class SwiftCodeSnapshot {
+    //every row, in code order
+    private final List<SwiftCode> rows;
+    //encoded code -> offset in rows. Codes BicCodec cannot encode are not in it, the endpoints reject them anyway.
+    private final SwiftCodeKeyIndex byCode;
+    //hq_swift_code -> branches, like findByHqSwiftCode
+    private final Map<String, List<SwiftCode>> branchesByHq;
+    //upper case ISO2 -> codes, like findByCountryISO2IgnoreCase
+    private final Map<String, List<SwiftCode>> byCountry;
+
+    private SwiftCodeSnapshot(Map<String, SwiftCode> byCode) {
+        List<SwiftCode> rows = new ArrayList<>(byCode.values());
+        rows.sort(Comparator.comparing(SwiftCode::getSwiftCode));
+
+        long[] keys = new long[rows.size()];
+        Map<String, List<SwiftCode>> branchesByHq = new HashMap<>();
+        Map<String, List<SwiftCode>> byCountry = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            SwiftCode row = rows.get(i);
+            keys[i] = BicCodec.encode(row.getSwiftCode());
+            if (row.getHqSwiftCode() != null) {
+                branchesByHq.computeIfAbsent(row.getHqSwiftCode(), hq -> new ArrayList<>()).add(row);
+            }
+            byCountry.computeIfAbsent(countryKey(row.getCountryISO2()), country -> new ArrayList<>()).add(row);
+        }
+        branchesByHq.replaceAll((hq, branches) -> List.copyOf(branches));
+        byCountry.replaceAll((country, codes) -> List.copyOf(codes));
+
+        this.rows = List.copyOf(rows);
+        this.byCode = new SwiftCodeKeyIndex(keys);
+        this.branchesByHq = Map.copyOf(branchesByHq);
+        this.byCountry = Map.copyOf(byCountry);
+    }
+
+    public static SwiftCodeSnapshot of(Collection<SwiftCode> rows) {
+        Map<String, SwiftCode> byCode = new HashMap<>();
+        for (SwiftCode row : rows) {
+            byCode.put(row.getSwiftCode(), row);
+        }
+        return new SwiftCodeSnapshot(byCode);
+    }
+
+    //A new snapshot where each changed code is replaced by its row in freshRows, or removed when it has none.
+    //freshRows may hold further rows that changed along with them.
+    public SwiftCodeSnapshot withChanges(Collection<String> changedCodes, Collection<SwiftCode> freshRows) {
+        Map<String, SwiftCode> changed = new HashMap<>();
+        for (SwiftCode row : rows) {
+            changed.put(row.getSwiftCode(), row);
+        }
+        changedCodes.forEach(changed::remove);
+        for (SwiftCode row : freshRows) {
+            changed.put(row.getSwiftCode(), row);
+        }
+        return new SwiftCodeSnapshot(changed);
+    }
+
+    public Optional<SwiftCodeDetails> findDetails(String swiftCode) {
+        int offset = byCode.offsetOf(BicCodec.encode(swiftCode));
+        if (offset == SwiftCodeKeyIndex.ABSENT) {
+            return Optional.empty();
+        }
+        SwiftCode code = rows.get(offset);
+        List<SwiftCode> branches = code.isHeadquarter() ? branchesByHq.getOrDefault(swiftCode, List.of()) : List.of();
+        return Optional.of(new SwiftCodeDetails(code, branches));
+    }
+
+    public List<SwiftCode> findByCountry(String countryISO2) {
+        return byCountry.getOrDefault(countryKey(countryISO2), List.of());
+    }
+
+    //Codes of the country after afterSwiftCode in code order, like findCountryPage
+    public List<SwiftCode> findCountryPage(String countryISO2, String afterSwiftCode, int limit) {
+        List<SwiftCode> codes = findByCountry(countryISO2);
+        //first code greater than afterSwiftCode, the lists are sorted by code
+        int from = 0;
+        int to = codes.size();
+        while (from < to) {
+            int mid = (from + to) >>> 1;
+            if (codes.get(mid).getSwiftCode().compareTo(afterSwiftCode) <= 0) {
+                from = mid + 1;
+            } else {
+                to = mid;
+            }
+        }
+        return codes.subList(from, Math.min(codes.size(), from + limit));
+    }
+
+    public List<SwiftCode> findAll() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    private static String countryKey(String countryISO2) {
+        return countryISO2 == null ? "" : countryISO2.toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+//In-memory serving mode: keeps a SwiftCodeSnapshot of the whole table and swaps in a new one after every change.
+//Readers only read the volatile reference, they never wait for a rebuild. An import is only picked up when it
+//has finished, as one full reload.
+@Service
+@Profile("!reactive")
+public class SwiftCodeSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(SwiftCodeSnapshotService.class);
+    private final SwiftCodeRepository swiftCodeRepository;
+    private final boolean enabled;
+    //one snapshot build at a time; held for the whole read of a reload
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    //null until the first load, and always when the mode is disabled
+    private volatile SwiftCodeSnapshot snapshot;
+
+    public SwiftCodeSnapshotService(SwiftCodeRepository swiftCodeRepository,
+                                    @Value("${swift.snapshot.enabled:false}") boolean enabled) {
+        this.swiftCodeRepository = swiftCodeRepository;
+        this.enabled = enabled;
+    }
+
+    //Empty while reads should go to the database
+    public Optional<SwiftCodeSnapshot> current() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        rebuildLock.lock();
+        try {
+            reload();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSwiftCodesChanged(SwiftCodesChangedEvent event) {
+        if (!enabled) return;
+        rebuildLock.lock();
+        try {
+            if (event.isBulk() || snapshot == null) {
+                reload();
+                return;
+            }
+            //re-read the changed rows, and for a headquarters the branches that may have been linked to it
+            List<SwiftCode> freshRows = new ArrayList<>(swiftCodeRepository.findAllById(event.getSwiftCodes()));
+            for (String swiftCode : event.getSwiftCodes()) {
+                if (swiftCode.endsWith(HeadquartersResolver.HQ_SUFFIX)) {
+                    freshRows.addAll(swiftCodeRepository.findByHqSwiftCode(swiftCode));
+                }
+            }
+            snapshot = snapshot.withChanges(event.getSwiftCodes(), freshRows);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void reload() {
+        long start = System.currentTimeMillis();
+        snapshot = SwiftCodeSnapshot.of(swiftCodeRepository.findAll());
+        log.info("Loaded SWIFT code snapshot: {} codes in {} ms", snapshot.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+//Hands rows to a consumer one at a time, for responses that are written while they are read. From the database
+//the rows come in keyset pages of CHUNK_SIZE, each read in its own short transaction, so memory does not grow
+//with the result and no connection is held while the rows are written: a slow or stalled client only keeps its
+//request thread. In snapshot mode the rows are already in memory and are read from there.
+//There is no transaction around a whole stream, so rows changed while it runs can show up in the later pages.
+@Service
+@Profile("!reactive")
+public class SwiftCodeStreamService {
+    static final int CHUNK_SIZE = 500;
+
+    private final SwiftCodeRepository swiftCodeRepository;
+    private final SwiftCodeSnapshotService snapshotService;
+
+    public SwiftCodeStreamService(SwiftCodeRepository swiftCodeRepository, SwiftCodeSnapshotService snapshotService) {
+        this.swiftCodeRepository = swiftCodeRepository;
+        this.snapshotService = snapshotService;
+    }
+
+    public boolean hasCountry(String countryISO2) {
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            return !snapshot.get().findByCountry(countryISO2).isEmpty();
+        }
+        return swiftCodeRepository.existsByCountryISO2IgnoreCase(countryISO2);
+    }
+
+    public void forEachInCountry(String countryISO2, RowConsumer consumer) throws IOException {
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            forEach(snapshot.get().findByCountry(countryISO2), consumer);
+            return;
+        }
+        forEachPage(afterSwiftCode -> swiftCodeRepository.findCountryPage(countryISO2, afterSwiftCode,
+                Limit.of(CHUNK_SIZE)), consumer);
+    }
+
+    public void forEachCode(RowConsumer consumer) throws IOException {
+        Optional<SwiftCodeSnapshot> snapshot = snapshotService.current();
+        if (snapshot.isPresent()) {
+            forEach(snapshot.get().findAll(), consumer);
+            return;
+        }
+        forEachPage(afterSwiftCode -> swiftCodeRepository.findPage(afterSwiftCode, Limit.of(CHUNK_SIZE)), consumer);
+    }
+
+    private static void forEach(List<SwiftCode> rows, RowConsumer consumer) throws IOException {
+        for (SwiftCode row : rows) {
+            consumer.accept(row);
+        }
+    }
+
+    //Pages after the last code of the previous one until a page comes back short
+    private static void forEachPage(Function<String, List<SwiftCode>> pages, RowConsumer consumer) throws IOException {
+        String afterSwiftCode = "";
+        List<SwiftCode> page;
+        do {
+            page = pages.apply(afterSwiftCode);
+            forEach(page, consumer);
+            if (!page.isEmpty()) {
+                afterSwiftCode = page.get(page.size() - 1).getSwiftCode();
+            }
+        } while (page.size() == CHUNK_SIZE);
+    }
+
+    @FunctionalInterface
+    public interface RowConsumer {
+        void accept(SwiftCode swiftCode) throws IOException;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.swift_api.service;
+
+import java.util.List;
+
+//Published after SWIFT codes were added, changed or deleted. A bulk change (an import) does not list the codes.
+public class SwiftCodesChangedEvent {
+    private final List<String> swiftCodes;
+
+    private SwiftCodesChangedEvent(List<String> swiftCodes) {
+        this.swiftCodes = swiftCodes;
+    }
+
+    public static SwiftCodesChangedEvent of(String... swiftCodes) {
+        return new SwiftCodesChangedEvent(List.of(swiftCodes));
+    }
+
+    public static SwiftCodesChangedEvent bulk() {
+        return new SwiftCodesChangedEvent(null);
+    }
+
+    public boolean isBulk() {
+        return swiftCodes == null;
+    }
+
+    //Empty for a bulk change
+    public List<String> getSwiftCodes() {
+        return swiftCodes == null ? List.of() : swiftCodes;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.swift_api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+final class TempFiles {
+    private static final Logger log = LoggerFactory.getLogger(TempFiles.class);
+
+    private TempFiles() {}
+
+    //Copies the upload to a file we own, the multipart temp file is gone once the request completes
+    static Path spool(MultipartFile file) throws IOException {
+        Path tempFile = Files.createTempFile("swift-import-", ".upload");
+        try {
+            file.transferTo(tempFile);
+            return tempFile;
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    //Same as spool(file), feeding the content to the digest on the way
+    static Path spool(MultipartFile file, MessageDigest digest) throws IOException {
+        Path tempFile = Files.createTempFile("swift-import-", ".upload");
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            return tempFile;
+        } catch (IOException e) {
+            deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary import file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- H2 has no expression indexes, plain column indexes keep the schema close to PostgreSQL
+CREATE INDEX IF NOT EXISTS idx_swift_codes_country ON swift_codes (countryiso2);
+CREATE INDEX IF NOT EXISTS idx_swift_codes_hq_swift_code ON swift_codes (hq_swift_code);
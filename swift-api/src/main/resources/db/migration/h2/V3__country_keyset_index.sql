@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_swift_codes_country_code ON swift_codes (countryiso2, swift_code);
+DROP INDEX IF EXISTS idx_swift_codes_country;
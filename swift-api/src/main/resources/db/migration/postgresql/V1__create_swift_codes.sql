@@ -0,0 +1,10 @@
+-- Existing databases already have the table, created before migrations were introduced
+CREATE TABLE IF NOT EXISTS swift_codes (
+    swift_code     varchar(255) NOT NULL PRIMARY KEY,
+    address        varchar(255) NOT NULL,
+    bank_name      varchar(255) NOT NULL,
+    country_name   varchar(255) NOT NULL,
+    countryiso2    varchar(255) NOT NULL,
+    hq_swift_code  varchar(255),
+    is_headquarter boolean      NOT NULL
+);
@@ -0,0 +1,12 @@
+-- flyway:executeInTransaction=false
+-- Built CONCURRENTLY, so writes to swift_codes go on during the deploy; that cannot run in a transaction.
+-- A concurrent build that fails leaves an INVALID index behind, which has to be dropped before retrying.
+
+-- GET /country/{iso2}: the repository compares upper(countryiso2), so the index is on the same expression
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_swift_codes_country_upper ON swift_codes (upper(countryiso2));
+
+-- Branch list of a headquarters (findByHqSwiftCode)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_swift_codes_hq_swift_code ON swift_codes (hq_swift_code);
+
+-- Branch linking by 8 character bank prefix, queries use substring(swift_code, 1, 8)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_swift_codes_bank_prefix ON swift_codes (substring(swift_code, 1, 8));
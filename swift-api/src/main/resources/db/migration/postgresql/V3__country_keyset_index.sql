@@ -0,0 +1,7 @@
+-- flyway:executeInTransaction=false
+-- Concurrent build and drop, as in V2: the table stays readable and writable throughout
+
+-- Country pages are read as upper(countryiso2) = ? AND swift_code > ? ORDER BY swift_code,
+-- a range scan on this index; it also serves the unpaged country lookup, so it replaces the V2 index
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_swift_codes_country_code ON swift_codes (upper(countryiso2), swift_code);
+DROP INDEX CONCURRENTLY IF EXISTS idx_swift_codes_country_upper;
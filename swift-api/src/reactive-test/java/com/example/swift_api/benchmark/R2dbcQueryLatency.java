@@ -0,0 +1,62 @@
+package com.example.swift_api.benchmark;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+//QueryLatency for R2DBC: statement results are delayed by benchmark.db-latency-ms without holding a thread
+@TestConfiguration
+class R2dbcQueryLatency {
+
+    @Bean
+    static BeanPostProcessor slowConnectionFactory() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (QueryLatency.LATENCY_MS > 0 && bean instanceof ConnectionFactory connectionFactory) {
+                    return proxy(ConnectionFactory.class, connectionFactory);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (type == Statement.class) {
+                if (method.getName().equals("execute")) {
+                    return Flux.from((Publisher<?>) result)
+                            .delaySubscription(Duration.ofMillis(QueryLatency.LATENCY_MS));
+                }
+                //bind, add, fetchSize... return the statement itself, keep handing out the proxy
+                return result == target ? self : result;
+            }
+            if (type == ConnectionFactory.class && method.getName().equals("create")) {
+                return Mono.from((Publisher<Connection>) result)
+                        .map(connection -> proxy(Connection.class, connection));
+            }
+            //wrap the statements a connection creates, so their executions are delayed too
+            if (result != null && method.getReturnType() == Statement.class) {
+                return proxy(Statement.class, (Statement) result);
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.swift_api.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ActiveProfilesResolver;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+
+//The read endpoints on the servlet stack (Tomcat, JPA, caches off) against the reactive profile (Netty, R2DBC),
+//same data, same load, same pool size. Run once per stack and compare:
+//mvn test -Pbenchmark,reactive -Dtest=ReactiveStackBenchmarkTest -Dbenchmark.stack=servlet
+//mvn test -Pbenchmark,reactive -Dtest=ReactiveStackBenchmarkTest -Dbenchmark.stack=reactive
+//H2 in memory with benchmark.db-latency-ms added to every query, or PostgreSQL with -Dbenchmark.postgres.url=jdbc:...
+//-Dbenchmark.postgres.r2dbc-url=r2dbc:... -Dbenchmark.db-latency-ms=0 (migrated by the servlet application).
+//benchmark.pool-size sets both pools. The data is written over a JDBC connection of the test's own, the reactive
+//stack has no data source.
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles(resolver = ReactiveStackBenchmarkTest.Stack.class)
+@Import({QueryLatency.class, R2dbcQueryLatency.class})
+class ReactiveStackBenchmarkTest {
+    private static final String STACK = System.getProperty("benchmark.stack", "servlet");
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int ROUNDS = 3;
+    private static final String POSTGRES_URL = System.getProperty("benchmark.postgres.url");
+    private static final String H2_URL = "jdbc:h2:mem:stackbench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    private static final String H2_MIGRATIONS = "classpath:db/migration/h2/V1__create_swift_codes.sql," +
+            "classpath:db/migration/h2/V2__lookup_indexes.sql,classpath:db/migration/h2/V3__country_keyset_index.sql";
+    private static final String USERNAME =
+            POSTGRES_URL != null ? System.getProperty("benchmark.postgres.username", "postgres") : "sa";
+    private static final String PASSWORD =
+            POSTGRES_URL != null ? System.getProperty("benchmark.postgres.password", "1234") : "";
+
+    @LocalServerPort
+    private int port;
+
+    //"reactive" switches to WebFlux and R2DBC, anything else keeps the servlet stack
+    static class Stack implements ActiveProfilesResolver {
+        @Override
+        public String[] resolve(Class<?> testClass) {
+            return new String[]{STACK};
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES_URL != null ? POSTGRES_URL : H2_URL);
+        registry.add("spring.datasource.username", () -> USERNAME);
+        registry.add("spring.datasource.password", () -> PASSWORD);
+        registry.add("spring.r2dbc.username", () -> USERNAME);
+        registry.add("spring.r2dbc.password", () -> PASSWORD);
+        if (POSTGRES_URL != null) {
+            registry.add("spring.r2dbc.url", () -> System.getProperty("benchmark.postgres.r2dbc-url"));
+        } else {
+            registry.add("spring.datasource.driverClassName", () -> "org.h2.Driver");
+            registry.add("spring.jpa.database", () -> "h2");
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.H2Dialect");
+            registry.add("spring.r2dbc.url", () -> "r2dbc:h2:mem:///stackbench;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        }
+        if (POSTGRES_URL == null && STACK.equals("reactive")) {
+            //no Flyway on the reactive stack, create the schema from the same migrations
+            registry.add("spring.sql.init.mode", () -> "always");
+            registry.add("spring.sql.init.schema-locations", () -> H2_MIGRATIONS);
+        }
+        int poolSize = Integer.getInteger("benchmark.pool-size", 20);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> poolSize);
+        registry.add("spring.datasource.hikari.connection-timeout", () -> 30000);
+        registry.add("spring.r2dbc.pool.max-size", () -> poolSize);
+        registry.add("spring.r2dbc.pool.max-acquire-time", () -> "30s");
+        //the reactive stack has no caches, so the servlet one reads the database on every request as well
+        registry.add("swift.cache.enabled", () -> false);
+        registry.add("swift.render-cache.enabled", () -> false);
+    }
+
+    @BeforeEach
+    void fill() {
+        HttpLoad.fill(new JdbcTemplate(new DriverManagerDataSource(
+                POSTGRES_URL != null ? POSTGRES_URL : H2_URL, USERNAME, PASSWORD)));
+    }
+
+    @Test
+    void loadLookupAndCountryEndpoints() throws Exception {
+        String baseUrl = "http://localhost:" + port + "/v1/swift-codes";
+        System.out.printf("%s stack, %d concurrent clients, %d ms per query, Java %s%n",
+                STACK, CONCURRENCY, QueryLatency.LATENCY_MS, JavaVersion.getJavaVersion());
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int round = 1; round <= ROUNDS; round++) {
+            //the first round warms up the JIT and the connections, compare the later ones
+            HttpLoad.run(client, round, "lookup", REQUESTS, CONCURRENCY, i -> HttpLoad.lookupUrl(baseUrl, i));
+            HttpLoad.run(client, round, "country", REQUESTS, CONCURRENCY, i -> HttpLoad.countryUrl(baseUrl, i));
+        }
+        System.out.printf("peak JVM threads: %d%n", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.ReactiveSwiftCodeRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReactiveSwiftCodeControllerTest {
+
+    @Mock
+    private ReactiveSwiftCodeRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReactiveSwiftCodeController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ReactiveSwiftCodeController(repository, objectMapper);
+    }
+
+    @Test
+    void testGetSwiftCodeByCountry_NameComesFromFirstRow() throws Exception {
+        when(repository.existsByCountry("pl")).thenReturn(Mono.just(true));
+        when(repository.findByCountry("pl")).thenReturn(Flux.just(
+                new SwiftCode("AAAAPLPWXXX", "Bank A", "PL", "POLAND", "1 HQ St"),
+                new SwiftCode("BBBBPLPWXXX", "Bank B", "PL", "POLAND", "2 HQ St")));
+
+        JsonNode document = country("pl");
+
+        assertEquals("PL", document.get("countryISO2").asText());
+        assertEquals("POLAND", document.get("countryName").asText());
+        assertEquals(2, document.get("swiftCodes").size());
+    }
+
+    @Test
+    void testGetSwiftCodeByCountry_CountryEmptiedAfterCheckIsWholeDocument() throws Exception {
+        when(repository.existsByCountry("pl")).thenReturn(Mono.just(true));
+        when(repository.findByCountry("pl")).thenReturn(Flux.empty());
+
+        JsonNode document = country("pl");
+
+        assertEquals("PL", document.get("countryISO2").asText());
+        assertTrue(document.get("countryName").isNull());
+        assertEquals(0, document.get("swiftCodes").size());
+    }
+
+    private JsonNode country(String countryISO2) throws Exception {
+        ResponseEntity<Flux<DataBuffer>> response = controller.getSwiftCodeByCountry(countryISO2).block();
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = DataBufferUtils.join(response.getBody())
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8)).block();
+        return objectMapper.readTree(body);
+    }
+}
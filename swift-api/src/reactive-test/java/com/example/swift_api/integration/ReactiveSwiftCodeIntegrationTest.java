@@ -0,0 +1,161 @@
+package com.example.swift_api.integration;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.ReactiveSwiftCodeRepository;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import com.example.swift_api.service.BankNameSearchService;
+import com.example.swift_api.service.SwiftCodePrefixIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//The reactive profile on Netty, reading through R2DBC from H2. There is no JDBC side in this mode, so the schema
+//comes from the H2 migrations run as init scripts and the rows are written over R2DBC.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivetest;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/migration/h2/V1__create_swift_codes.sql," +
+                "classpath:db/migration/h2/V2__lookup_indexes.sql,classpath:db/migration/h2/V3__country_keyset_index.sql",
+        "swift.reactive.fetch-size=50"})
+@ActiveProfiles("reactive")
+public class ReactiveSwiftCodeIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ReactiveSwiftCodeRepository reactiveRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<SwiftCode> codes = new ArrayList<>();
+        codes.add(new SwiftCode("AAAAPLPWXXX", "Bank A", "PL", "POLAND", "1 HQ St"));
+        SwiftCode branch = new SwiftCode("AAAAPLPW001", "Bank A", "PL", "POLAND", "1 Branch St");
+        branch.setHqSwiftCode("AAAAPLPWXXX");
+        codes.add(branch);
+        for (int i = 0; i < 300; i++) {
+            codes.add(new SwiftCode(String.format("B%03dDEFFXXX", i), "Bank " + i, "DE", "GERMANY", i + " Strasse"));
+        }
+        databaseClient.sql("DELETE FROM swift_codes").then()
+                .thenMany(Flux.fromIterable(codes).concatMap(this::insert))
+                .blockLast();
+    }
+
+    @Test
+    void testGetSwiftCodeDetails() throws Exception {
+        JsonNode hq = readTree(webTestClient.get().uri("/v1/swift-codes/AAAAPLPWXXX").exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody());
+        assertEquals("AAAAPLPWXXX", hq.get("swiftCode").asText());
+        assertTrue(hq.get("headquarter").asBoolean());
+        assertEquals(1, hq.get("branches").size());
+        assertEquals("AAAAPLPW001", hq.get("branches").get(0).get("swiftCode").asText());
+
+        JsonNode branch = readTree(webTestClient.get().uri("/v1/swift-codes/AAAAPLPW001").exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult().getResponseBody());
+        assertFalse(branch.get("headquarter").asBoolean());
+        assertNull(branch.get("branches"));
+
+        webTestClient.get().uri("/v1/swift-codes/ZZZZPLPWXXX").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("SWIFT code not found");
+        webTestClient.get().uri("/v1/swift-codes/ABC").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid SWIFT code format");
+    }
+
+    @Test
+    void testGetSwiftCodesByCountryIsStreamed() throws Exception {
+        JsonNode country = readTree(webTestClient.get().uri("/v1/swift-codes/country/de").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody().returnResult().getResponseBody());
+        assertEquals("DE", country.get("countryISO2").asText());
+        assertEquals("GERMANY", country.get("countryName").asText());
+        assertEquals(300, country.get("swiftCodes").size());
+        assertEquals("B000DEFFXXX", country.get("swiftCodes").get(0).get("swiftCode").asText());
+        assertEquals("B299DEFFXXX", country.get("swiftCodes").get(299).get("swiftCode").asText());
+
+        webTestClient.get().uri("/v1/swift-codes/country/FR").exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("No SWIFT codes found for the given country");
+        webTestClient.get().uri("/v1/swift-codes/country/XX").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid country ISO2 code format");
+    }
+
+    @Test
+    void testCountryRowsAreReadOnDemand() {
+        StepVerifier.create(reactiveRepository.findByCountry("DE"), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(2)
+                .assertNext(row -> assertEquals("B000DEFFXXX", row.getSwiftCode()))
+                .assertNext(row -> assertEquals("B001DEFFXXX", row.getSwiftCode()))
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testServletOnlyEndpointsAreNotRegistered() {
+        webTestClient.get().uri("/v1/swift-codes/country/DE/stream").exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/v1/swift-codes/AAAAPLPWXXX").exchange().expectStatus().isEqualTo(405);
+    }
+
+    @Test
+    void testJdbcSideIsNotStarted() {
+        assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+        assertEquals(0, context.getBeanNamesForType(EntityManagerFactory.class).length);
+        assertEquals(0, context.getBeanNamesForType(SwiftCodeRepository.class).length);
+        assertEquals(0, context.getBeanNamesForType(SwiftCodePrefixIndex.class).length);
+        assertEquals(0, context.getBeanNamesForType(BankNameSearchService.class).length);
+    }
+
+    private Mono<Long> insert(SwiftCode code) {
+        DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("INSERT INTO swift_codes (swift_code, bank_name, " +
+                        "countryiso2, country_name, address, is_headquarter, hq_swift_code) " +
+                        "VALUES (:code, :bank, :iso2, :country, :address, :hq, :hqCode)")
+                .bind("code", code.getSwiftCode())
+                .bind("bank", code.getBankName())
+                .bind("iso2", code.getCountryISO2())
+                .bind("country", code.getCountryName())
+                .bind("address", code.getAddress())
+                .bind("hq", code.isHeadquarter());
+        insert = code.getHqSwiftCode() == null ? insert.bindNull("hqCode", String.class)
+                : insert.bind("hqCode", code.getHqSwiftCode());
+        return insert.fetch().rowsUpdated();
+    }
+
+    private static JsonNode readTree(byte[] body) throws Exception {
+        return new ObjectMapper().readTree(body);
+    }
+}
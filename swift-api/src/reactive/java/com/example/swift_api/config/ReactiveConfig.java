@@ -0,0 +1,18 @@
+package com.example.swift_api.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+//The reactive profile's read access: SQL over the connection factory Spring Boot builds from spring.r2dbc.*
+@Configuration
+@Profile("reactive")
+public class ReactiveConfig {
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.ReactiveSwiftCodeRepository;
+import com.example.swift_api.service.SwiftCodeLookupService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//The read endpoints of SwiftCodeController on WebFlux and R2DBC (the reactive profile), same paths and documents.
+//No request thread waits for the database, and a country is written row by row as the client takes it: the rows
+//are fetched as the response is flushed, so a slow reader slows the query instead of filling the heap.
+//The servlet stack's caches, snapshot, ETags and binary encodings are not part of this mode.
+@RestController
+@Profile("reactive")
+@RequestMapping("/v1/swift-codes")
+public class ReactiveSwiftCodeController {
+    private static final byte[] COMMA = {','};
+    private static final byte[] DOCUMENT_END = {']', '}'};
+
+    private final ReactiveSwiftCodeRepository repository;
+    private final ObjectMapper objectMapper;
+    private final DataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    public ReactiveSwiftCodeController(ReactiveSwiftCodeRepository repository, ObjectMapper objectMapper){
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/{swiftCode}")
+    public Mono<ResponseEntity<Object>> getSwiftCodesDetails(@PathVariable String swiftCode){
+        if(!SwiftCodeController.isValidSwiftCodeFormat(swiftCode)){
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new SwiftCodeController.MessageResponse("Invalid SWIFT code format")));
+        }
+        return repository.findWithBranches(swiftCode).collectList().map(rows -> {
+            SwiftCode code = null;
+            List<SwiftCode> branches = new ArrayList<>();
+            for(SwiftCode row : rows){
+                if(code == null && row.getSwiftCode().equals(swiftCode)){
+                    code = row;
+                }
+                else{
+                    branches.add(row);
+                }
+            }
+            if(code == null){
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new SwiftCodeController.MessageResponse("SWIFT code not found"));
+            }
+            return ResponseEntity.ok(SwiftCodeController.toResponse(SwiftCodeLookupService.details(code, branches)));
+        });
+    }
+
+    //Same document as the servlet endpoint, written as a stream of buffers: the opening with the country name from
+    //the first row, then one buffer per code
+    @GetMapping("/country/{countryISO2code}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getSwiftCodeByCountry(@PathVariable String countryISO2code){
+        if(!SwiftCodeController.isValidCountryFormat(countryISO2code)){
+            SwiftCodeController.MessageResponse message =
+                    new SwiftCodeController.MessageResponse("Invalid country ISO2 code format");
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).contentType(MediaType.APPLICATION_JSON)
+                    .body(Flux.defer(() -> Flux.just(buffer(json(message))))));
+        }
+        return repository.existsByCountry(countryISO2code).map(exists -> {
+            if(!exists){
+                SwiftCodeController.MessageResponse message =
+                        new SwiftCodeController.MessageResponse("No SWIFT codes found for the given country");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                        .body(Flux.defer(() -> Flux.just(buffer(json(message)))));
+            }
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(countryDocument(countryISO2code));
+        });
+    }
+
+    private Flux<DataBuffer> countryDocument(String countryISO2code){
+        String countryISO2 = countryISO2code.toUpperCase();
+        return Flux.defer(() -> {
+            AtomicBoolean opened = new AtomicBoolean();
+            return repository.findByCountry(countryISO2code)
+                    .map(row -> {
+                        byte[] separator = !opened.getAndSet(true) ? opening(countryISO2, row.getCountryName()) : COMMA;
+                        return buffer(separator, json(new SwiftCodeController.SwiftCodeResponse(row)));
+                    })
+                    //a country emptied after the check still gets the whole document
+                    .concatWith(Mono.fromSupplier(() -> !opened.get()
+                            ? buffer(opening(countryISO2, null), DOCUMENT_END) : buffer(DOCUMENT_END)));
+        });
+    }
+
+    private byte[] opening(String countryISO2, String countryName){
+        return ("{\"countryISO2\":" + new String(json(countryISO2), StandardCharsets.UTF_8)
+                + ",\"countryName\":" + new String(json(countryName), StandardCharsets.UTF_8)
+                + ",\"swiftCodes\":[").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] json(Object value){
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private DataBuffer buffer(byte[]... parts){
+        int length = 0;
+        for(byte[] part : parts){
+            length += part.length;
+        }
+        DataBuffer buffer = bufferFactory.allocateBuffer(length);
+        for(byte[] part : parts){
+            buffer.write(part);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.swift_api.repository;
+
+import com.example.swift_api.model.SwiftCode;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+//The read queries of SwiftCodeRepository over R2DBC, for the reactive profile. Same SQL, so the same indexes
+//serve them; rows are mapped to detached SwiftCode copies and the DTOs are shared with the servlet controllers.
+@Repository
+@Profile("reactive")
+public class ReactiveSwiftCodeRepository {
+    private static final String COLUMNS =
+            "swift_code, bank_name, countryiso2, country_name, address, is_headquarter, hq_swift_code";
+
+    private final DatabaseClient databaseClient;
+    private final int fetchSize;
+
+    public ReactiveSwiftCodeRepository(DatabaseClient databaseClient,
+                                       @Value("${swift.reactive.fetch-size:500}") int fetchSize) {
+        this.databaseClient = databaseClient;
+        this.fetchSize = fetchSize;
+    }
+
+    //The code and, when it is a headquarters, its branches (see SwiftCodeRepository.findWithBranches)
+    public Flux<SwiftCode> findWithBranches(String swiftCode) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM swift_codes WHERE swift_code = :swiftCode " +
+                        "UNION ALL SELECT " + COLUMNS + " FROM swift_codes WHERE hq_swift_code = :swiftCode")
+                .bind("swiftCode", swiftCode)
+                .map(ReactiveSwiftCodeRepository::row)
+                .all();
+    }
+
+    public Mono<Boolean> existsByCountry(String countryISO2) {
+        return databaseClient.sql("SELECT 1 FROM swift_codes WHERE upper(countryiso2) = upper(:countryISO2) LIMIT 1")
+                .bind("countryISO2", countryISO2)
+                .map(row -> true)
+                .first()
+                .defaultIfEmpty(false);
+    }
+
+    //A country in code order, fetched fetchSize rows at a time as the subscriber asks for them;
+    //upper(countryiso2) is the expression of idx_swift_codes_country_code
+    public Flux<SwiftCode> findByCountry(String countryISO2) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM swift_codes " +
+                        "WHERE upper(countryiso2) = upper(:countryISO2) ORDER BY swift_code")
+                .bind("countryISO2", countryISO2)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveSwiftCodeRepository::row)
+                .all();
+    }
+
+    private static SwiftCode row(Readable row) {
+        return new SwiftCode(row.get("swift_code", String.class), row.get("bank_name", String.class),
+                row.get("countryiso2", String.class), row.get("country_name", String.class),
+                row.get("address", String.class), Boolean.TRUE.equals(row.get("is_headquarter", Boolean.class)),
+                row.get("hq_swift_code", String.class));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.service.BankMatch;
+import com.example.swift_api.service.BankNameIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+//Query latency of the bank name index over a directory-sized data set, no database:
+//mvn test -Pbenchmark -Dtest=BankNameSearchBenchmarkTest [-Dbenchmark.rows=200000]
+@Tag("benchmark")
+class BankNameSearchBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int CODES_PER_BANK = 5;
+    private static final int QUERIES = 20_000;
+    private static final String[] WORDS = {"bank", "national", "commercial", "credit", "savings", "trust", "agricultural",
+            "industrial", "investment", "cooperative", "mutual", "first", "central", "united", "global", "capital",
+            "merchant", "popular", "regional", "development", "finance", "union", "international", "private"};
+    private static final String[] PLACES = {"warsaw", "berlin", "paris", "madrid", "lisbon", "vienna", "prague",
+            "santiago", "lima", "bogota", "tokyo", "seoul", "cairo", "nairobi", "oslo", "dublin", "athens", "sofia"};
+
+    @Test
+    void measureQueryLatency() {
+        Random random = new Random(42);
+        String[] names = new String[ROWS / CODES_PER_BANK];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = name(random, i);
+        }
+
+        long start = System.nanoTime();
+        BankNameIndex index = new BankNameIndex();
+        for (int row = 0; row < ROWS; row++) {
+            index.add(String.format("B%07dXXX", row), names[row / CODES_PER_BANK]);
+        }
+        System.out.printf("built index of %,d codes, %,d names in %,d ms%n",
+                ROWS, index.size(), (System.nanoTime() - start) / 1_000_000);
+
+        for (int round = 1; round <= 3; round++) {
+            //the first round warms up the JIT, compare the later ones
+            long[] nanos = new long[QUERIES];
+            int found = 0;
+            for (int q = 0; q < QUERIES; q++) {
+                String query = typo(random, names[random.nextInt(names.length)]);
+                long queryStart = System.nanoTime();
+                List<BankMatch> matches = index.search(query, 10);
+                nanos[q] = System.nanoTime() - queryStart;
+                if (!matches.isEmpty()) found++;
+            }
+            Arrays.sort(nanos);
+            System.out.printf("round %d: %,d queries, p50 %,d us, p99 %,d us, max %,d us, %d%% with matches%n",
+                    round, QUERIES, nanos[QUERIES / 2] / 1000, nanos[QUERIES * 99 / 100] / 1000,
+                    nanos[QUERIES - 1] / 1000, found * 100 / QUERIES);
+        }
+        assertFalse(index.search(names[0], 10).isEmpty());
+    }
+
+    private static String name(Random random, int i) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " bank of "
+                + PLACES[random.nextInt(PLACES.length)] + " " + Integer.toString(i, 36);
+    }
+
+    //drops one letter of a longer word, like a hurried operator would
+    private static String typo(Random random, String name) {
+        String[] words = name.split(" ");
+        int w = random.nextInt(words.length);
+        if (words[w].length() > 4) {
+            int at = 1 + random.nextInt(words[w].length() - 2);
+            words[w] = words[w].substring(0, at) + words[w].substring(at + 1);
+        }
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.service.BicValidator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Data set and load loop shared by the HTTP load benchmarks: BANKS headquarters with BRANCHES_PER_BANK branches
+//each, spread over COUNTRIES countries, and a fixed number of requests kept at a fixed concurrency
+final class HttpLoad {
+    static final int BANKS = 2000;
+    static final int BRANCHES_PER_BANK = 4;
+    static final int COUNTRIES = 100;
+    private static final String[] COUNTRY_CODES = countryCodes();
+
+    private HttpLoad() {
+    }
+
+    static void fill(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.execute("TRUNCATE TABLE swift_codes");
+        List<Object[]> rows = new ArrayList<>();
+        for (int bank = 0; bank < BANKS; bank++) {
+            String prefix = bankPrefix(bank);
+            rows.add(new Object[]{prefix + "XXX", "Bank " + bank, country(bank), "COUNTRY", "1 HQ St", true, null});
+            for (int branch = 0; branch < BRANCHES_PER_BANK; branch++) {
+                rows.add(new Object[]{prefix + String.format("%03d", branch), "Bank " + bank, country(bank), "COUNTRY",
+                        branch + " Branch St", false, prefix + "XXX"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO swift_codes (swift_code, bank_name, countryiso2, country_name, " +
+                "address, is_headquarter, hq_swift_code) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    //A headquarters lookup per request, cycling through the banks
+    static String lookupUrl(String baseUrl, int request) {
+        return baseUrl + "/" + bankPrefix(request % BANKS) + "XXX";
+    }
+
+    //A whole country per request (BANKS / COUNTRIES banks with their branches), cycling through the countries
+    static String countryUrl(String baseUrl, int request) {
+        return baseUrl + "/country/" + country(request % COUNTRIES);
+    }
+
+    static void run(HttpClient client, int round, String name, int requests, int concurrency,
+                    IntFunction<String> url) throws Exception {
+        Semaphore inFlight = new Semaphore(concurrency);
+        long[] nanos = new long[requests];
+        AtomicInteger failed = new AtomicInteger();
+        List<CompletableFuture<?>> sent = new ArrayList<>(requests);
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            inFlight.acquire();
+            int request = i;
+            long sentAt = System.nanoTime();
+            sent.add(client.sendAsync(HttpRequest.newBuilder(URI.create(url.apply(i))).build(),
+                            HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        nanos[request] = System.nanoTime() - sentAt;
+                        if (error != null || response.statusCode() != 200) failed.incrementAndGet();
+                        inFlight.release();
+                    }));
+        }
+        CompletableFuture.allOf(sent.toArray(new CompletableFuture[0])).exceptionally(error -> null).join();
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(nanos);
+        System.out.printf("round %d %-8s %,8.0f req/s, p50 %,7.1f ms, p99 %,7.1f ms, failed %d%n", round, name,
+                requests / (elapsed / 1e9), nanos[requests / 2] / 1e6, nanos[requests * 99 / 100] / 1e6, failed.get());
+        assertEquals(0, failed.get());
+    }
+
+    //the first COUNTRIES ISO 3166 codes in alphabetical order, 1% of the banks each
+    static String country(int bank) {
+        return COUNTRY_CODES[bank % COUNTRIES];
+    }
+
+    //a well-formed BIC prefix: B + 3 digits, the country, 2 digits as the location
+    private static String bankPrefix(int bank) {
+        return String.format("B%03d%s%02d", bank / 100, country(bank), bank % 100);
+    }
+
+    private static String[] countryCodes() {
+        List<String> codes = new ArrayList<>();
+        for (char first = 'A'; first <= 'Z'; first++) {
+            for (char second = 'A'; second <= 'Z'; second++) {
+                String code = "" + first + second;
+                if (BicValidator.isCountry(code) && codes.size() < COUNTRIES) codes.add(code);
+            }
+        }
+        return codes.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import com.example.swift_api.service.CopyImportEngine;
+import com.example.swift_api.service.ImportEngine;
+import com.example.swift_api.service.ImportSink;
+import com.example.swift_api.service.JpaImportEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//mvn test -Pbenchmark -Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/swift_db?reWriteBatchedInserts=true
+@Tag("benchmark")
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark.postgres.url", matches = ".+")
+class ImportEngineBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Autowired
+    private JpaImportEngine jpaImportEngine;
+
+    @Autowired
+    private CopyImportEngine copyImportEngine;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("benchmark.postgres.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("benchmark.postgres.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("benchmark.postgres.password", "1234"));
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "update");
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @BeforeEach
+    void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE swift_codes");
+    }
+
+    @Test
+    void compareImportPaths() {
+        assertTrue(copyImportEngine.isAvailable(), "COPY engine needs a PostgreSQL datasource");
+
+        long saveAllNanos = time(() -> swiftCodeRepository.saveAll(generate(ROWS)));
+        report("saveAll (single transaction)", saveAllNanos);
+
+        truncate();
+        report("JPA chunked insert", time(() -> runSink(jpaImportEngine)));
+        report("JPA chunked refresh", time(() -> runSink(jpaImportEngine)));
+
+        truncate();
+        report("COPY insert", time(() -> runSink(copyImportEngine)));
+        report("COPY refresh", time(() -> runSink(copyImportEngine)));
+
+        assertEquals(ROWS, swiftCodeRepository.count());
+    }
+
+    private void runSink(ImportEngine engine) {
+        List<SwiftCode> rows = generate(ROWS);
+        try (ImportSink sink = engine.openSink()) {
+            for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+                sink.write(rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size())));
+            }
+            sink.complete();
+        }
+    }
+
+    //ten codes per bank: one XXX headquarters and nine branches
+    static List<SwiftCode> generate(int count) {
+        List<SwiftCode> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String prefix = String.format("B%05dPL", i / 10);
+            String code = i % 10 == 0 ? prefix + "XXX" : prefix + String.format("%03d", i % 10);
+            SwiftCode swiftCode = new SwiftCode(code, "Bank " + i / 10, "PL", "POLAND", "Street " + i);
+            if (!swiftCode.isHeadquarter()) {
+                swiftCode.setHqSwiftCode(prefix + "XXX");
+            }
+            rows.add(swiftCode);
+        }
+        return rows;
+    }
+
+    private static long time(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, long nanos) {
+        System.out.printf("%-30s %,10d rows in %,8d ms = %,10.0f rows/s%n",
+                name, ROWS, nanos / 1_000_000, ROWS / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.service.DelimitedFileReader;
+import com.example.swift_api.service.RowHandler;
+import com.example.swift_api.service.XlsxStreamingReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Parse only, no database: mvn test -Pbenchmark -Dtest=ImportFormatBenchmarkTest [-Dbenchmark.rows=500000]
+@Tag("benchmark")
+class ImportFormatBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int ROUNDS = 5;
+    private static final String[] HEADER = {"COUNTRY ISO2 CODE", "SWIFT CODE", "CODE TYPE", "NAME", "ADDRESS",
+            "TOWN NAME", "COUNTRY NAME", "TIME ZONE"};
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void compareXlsxAndCsv() throws IOException {
+        Path xlsx = tempDir.resolve("swift_codes.xlsx");
+        Path csv = tempDir.resolve("swift_codes.csv");
+        writeXlsx(xlsx);
+        writeCsv(csv);
+        System.out.printf("dataset: %,d rows, xlsx %,d KB, csv %,d KB%n",
+                ROWS, Files.size(xlsx) / 1024, Files.size(csv) / 1024);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            //the first round warms up the JIT, compare the later ones
+            report(round, "XLSX (POI event model)", time(handler -> new XlsxStreamingReader(7).read(xlsx.toFile(), handler)));
+            report(round, "CSV (memory-mapped)", time(handler -> new DelimitedFileReader(7, ',').read(csv, handler)));
+        }
+    }
+
+    private static long time(Reader reader) throws IOException {
+        long[] rows = new long[1];
+        long start = System.nanoTime();
+        reader.read((rowNum, cells) -> {
+            if (cells[1] != null) rows[0]++;
+        });
+        long nanos = System.nanoTime() - start;
+        assertEquals(ROWS + 1, rows[0]);
+        return nanos;
+    }
+
+    private static void report(int round, String name, long nanos) {
+        System.out.printf("round %d %-25s %,10d rows in %,8d ms = %,12.0f rows/s%n",
+                round, name, ROWS, nanos / 1_000_000, ROWS / (nanos / 1e9));
+    }
+
+    private static String[] row(int i) {
+        String prefix = String.format("B%05dPL", i / 10);
+        String code = i % 10 == 0 ? prefix + "XXX" : prefix + String.format("%03d", i % 10);
+        return new String[]{"PL", code, "BIC11", "Bank " + i / 10, "Street " + i + ", Warszawa", "WARSZAWA",
+                "POLAND", "Europe/Warsaw"};
+    }
+
+    private static void writeXlsx(Path file) throws IOException {
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(1000); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("SWIFT Codes");
+            for (int i = 0; i <= ROWS; i++) {
+                String[] values = i == 0 ? HEADER : row(i - 1);
+                Row row = sheet.createRow(i);
+                for (int c = 0; c < values.length; c++) {
+                    row.createCell(c).setCellValue(values[c]);
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+    }
+
+    private static void writeCsv(Path file) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i <= ROWS; i++) {
+                String[] values = i == 0 ? HEADER : row(i - 1);
+                for (int c = 0; c < values.length; c++) {
+                    if (c > 0) out.write(',');
+                    out.write(values[c].contains(",") ? '"' + values[c] + '"' : values[c]);
+                }
+                out.write('\n');
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reader {
+        void read(RowHandler handler) throws IOException;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.service.BicCodec;
+import com.example.swift_api.service.SwiftCodeKeyIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//The snapshot's code -> row lookup as a HashMap<String, SwiftCode> against BicCodec keys in a SwiftCodeKeyIndex over
+//a SwiftCode[]: retained heap per entry on top of the rows themselves. Lookup time is measured under JMH by
+//KeyIndexLookupBenchmark. No Spring, no database:
+//mvn test -Pbenchmark -Dtest=KeyIndexBenchmarkTest [-Dbenchmark.entries=1000000]
+@Tag("benchmark")
+class KeyIndexBenchmarkTest {
+    private static final int ENTRIES = Integer.getInteger("benchmark.entries", 500_000);
+
+    @Test
+    void compareHashMapAndKeyIndex() {
+        SwiftCode[] rows = new SwiftCode[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            rows[i] = new SwiftCode(code(i), "Bank " + i, "PL", "POLAND", "Street");
+        }
+
+        long before = usedHeap();
+        Map<String, SwiftCode> byCode = new HashMap<>();
+        for (SwiftCode row : rows) {
+            byCode.put(row.getSwiftCode(), row);
+        }
+        long hashMapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        SwiftCode[] records = rows.clone();
+        long[] keys = new long[records.length];
+        for (int i = 0; i < records.length; i++) {
+            keys[i] = BicCodec.encode(records[i].getSwiftCode());
+        }
+        SwiftCodeKeyIndex index = new SwiftCodeKeyIndex(keys);
+        keys = null;
+        long keyIndexBytes = usedHeap() - before;
+
+        System.out.printf("%,d entries, heap per entry: HashMap %.1f bytes, key index with record array %.1f bytes%n",
+                ENTRIES, (double) hashMapBytes / ENTRIES, (double) keyIndexBytes / ENTRIES);
+        assertEquals(ENTRIES, byCode.size());
+        assertEquals(ENTRIES - 1, index.offsetOf(BicCodec.encode(rows[ENTRIES - 1].getSwiftCode())));
+    }
+
+    private static String code(int i) {
+        return String.format("B%03dPLPW%03d", i / 1000 % 1000, i % 1000);
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Latency and allocations of one headquarters lookup: entities (findById + findByHqSwiftCode) against the read
+//rows of findWithBranches. The lookup cache is not involved. H2 in memory unless a PostgreSQL URL is given:
+//mvn test -Pbenchmark -Dtest=LookupQueryBenchmarkTest [-Dbenchmark.postgres.url=jdbc:postgresql://localhost:5432/swift_db]
+@Tag("benchmark")
+@SpringBootTest
+class LookupQueryBenchmarkTest {
+    private static final int BANKS = 2000;
+    private static final int BRANCHES_PER_BANK = Integer.getInteger("benchmark.branches", 20);
+    private static final int ROUNDS = 5;
+    private static final int LOOKUPS = 5000;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        String postgresUrl = System.getProperty("benchmark.postgres.url");
+        if (postgresUrl != null) {
+            registry.add("spring.datasource.url", () -> postgresUrl);
+            registry.add("spring.datasource.username", () -> System.getProperty("benchmark.postgres.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("benchmark.postgres.password", "1234"));
+        } else {
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:lookupbench");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            registry.add("spring.datasource.driverClassName", () -> "org.h2.Driver");
+            registry.add("spring.jpa.database", () -> "h2");
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.H2Dialect");
+        }
+        registry.add("spring.jpa.show-sql", () -> "false");
+    }
+
+    @BeforeEach
+    void fill() {
+        jdbcTemplate.execute("TRUNCATE TABLE swift_codes");
+        List<Object[]> rows = new ArrayList<>();
+        for (int bank = 0; bank < BANKS; bank++) {
+            String prefix = String.format("B%05dPL", bank);
+            rows.add(new Object[]{prefix + "XXX", "Bank " + bank, "PL", "POLAND", "1 HQ Street", true, null});
+            for (int branch = 0; branch < BRANCHES_PER_BANK; branch++) {
+                rows.add(new Object[]{prefix + String.format("%03d", branch), "Bank " + bank, "PL", "POLAND",
+                        branch + " Branch Street", false, prefix + "XXX"});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO swift_codes (swift_code, bank_name, countryiso2, country_name, " +
+                "address, is_headquarter, hq_swift_code) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @Test
+    void compareEntityAndReadRowLookups() {
+        Function<String, Integer> entities = code -> swiftCodeRepository.findById(code)
+                .map(hq -> 1 + swiftCodeRepository.findByHqSwiftCode(hq.getSwiftCode()).size()).orElse(0);
+        Function<String, Integer> readRows = code -> swiftCodeRepository.findWithBranches(code).size();
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            //the first round warms up the JIT, compare the later ones
+            run(round, "entities, 2 queries", entities);
+            run(round, "read rows, 1 query", readRows);
+        }
+    }
+
+    private static void run(int round, String name, Function<String, Integer> lookup) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long[] nanos = new long[LOOKUPS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < LOOKUPS; i++) {
+            String code = String.format("B%05dPLXXX", ThreadLocalRandom.current().nextInt(BANKS));
+            long start = System.nanoTime();
+            int rows = lookup.apply(code);
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(1 + BRANCHES_PER_BANK, rows);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        Arrays.sort(nanos);
+        System.out.printf("round %d %-20s p50 %,7.1f us, p99 %,7.1f us, %,8d bytes allocated per lookup%n",
+                round, name, nanos[LOOKUPS / 2] / 1e3, nanos[LOOKUPS * 99 / 100] / 1e3, allocated / LOOKUPS);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.swift_api.benchmark;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+//Adds benchmark.db-latency-ms to every JDBC statement execution while the connection is held, like a database
+//across the network; the statements sleep on the calling thread
+@TestConfiguration
+class QueryLatency {
+    static final int LATENCY_MS = Integer.getInteger("benchmark.db-latency-ms", 2);
+
+    @Bean
+    static BeanPostProcessor slowDatabase() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (LATENCY_MS > 0 && bean instanceof DataSource dataSource) return proxy(DataSource.class, dataSource);
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getName().startsWith("execute") && java.sql.Statement.class.isAssignableFrom(type)) {
+                Thread.sleep(LATENCY_MS);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            //wrap what the statements come from, so their executions are delayed too
+            Class<?> returned = method.getReturnType();
+            if (result != null && returned.isInterface()
+                    && (returned == java.sql.Connection.class || java.sql.Statement.class.isAssignableFrom(returned))) {
+                return proxy((Class<Object>) returned, result);
+            }
+            return result;
+        });
+    }
+}
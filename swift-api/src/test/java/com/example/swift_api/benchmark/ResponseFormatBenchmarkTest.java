@@ -0,0 +1,79 @@
+package com.example.swift_api.benchmark;
+
+import com.example.swift_api.controller.SwiftCodeController;
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.service.ResponseFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Size and encode / decode time of a large country listing per response format, no server:
+//mvn test -Pbenchmark -Dtest=ResponseFormatBenchmarkTest [-Dbenchmark.rows=100000]
+@Tag("benchmark")
+class ResponseFormatBenchmarkTest {
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 50_000);
+    private static final int ROUNDS = 5;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void compareFormats() throws IOException {
+        SwiftCodeController.CountrySwiftCodeResponse country = country();
+        Map<ResponseFormat, ObjectMapper> mappers = ResponseFormat.mappers(new ObjectMapper());
+        JsonNode expected = mappers.get(ResponseFormat.JSON).valueToTree(country);
+
+        for (ResponseFormat format : ResponseFormat.values()) {
+            byte[] bytes = mappers.get(format).writeValueAsBytes(country);
+            assertEquals(expected, mappers.get(format).readTree(bytes));
+            System.out.printf("%-6s %,10d bytes, gzipped %,9d bytes%n", format, bytes.length, gzip(bytes).length);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            //the first round warms up the JIT, compare the later ones
+            for (ResponseFormat format : ResponseFormat.values()) {
+                ObjectMapper mapper = mappers.get(format);
+                byte[] bytes = null;
+                long start = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    bytes = mapper.writeValueAsBytes(country);
+                }
+                long encodeNanos = (System.nanoTime() - start) / ITERATIONS;
+                start = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    mapper.readTree(bytes);
+                }
+                long decodeNanos = (System.nanoTime() - start) / ITERATIONS;
+                System.out.printf("round %d %-6s encode %,8.2f ms, decode %,8.2f ms%n",
+                        round, format, encodeNanos / 1e6, decodeNanos / 1e6);
+            }
+        }
+    }
+
+    private static SwiftCodeController.CountrySwiftCodeResponse country() {
+        List<SwiftCode> codes = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String prefix = String.format("B%05dUS", i / 10);
+            String code = i % 10 == 0 ? prefix + "XXX" : prefix + String.format("%03d", i % 10);
+            codes.add(new SwiftCode(code, "Bank of Somewhere " + i / 10, "US", "UNITED STATES",
+                    i + " Main Street, Springfield, IL 62701"));
+        }
+        return new SwiftCodeController.CountrySwiftCodeResponse("US", "UNITED STATES", codes);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        }
+        return out.toByteArray();
+    }
+}
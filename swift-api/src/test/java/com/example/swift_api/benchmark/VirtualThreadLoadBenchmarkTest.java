@@ -0,0 +1,82 @@
+package com.example.swift_api.benchmark;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+
+//Load on the lookup and country endpoints with every request reaching the database (caches off), on platform or
+//virtual request threads. Run once per mode and compare:
+//mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmarkTest -Dbenchmark.virtual=false
+//mvn test -Pbenchmark -Dtest=VirtualThreadLoadBenchmarkTest -Dbenchmark.virtual=true -Djdk.tracePinnedThreads=short
+//H2 in memory with benchmark.db-latency-ms added to every query to stand in for the network round trip, or a real
+//database with -Dbenchmark.postgres.url=... -Dbenchmark.db-latency-ms=0. benchmark.pool-size sets the Hikari pool.
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Import(QueryLatency.class)
+class VirtualThreadLoadBenchmarkTest {
+    private static final boolean VIRTUAL = Boolean.getBoolean("benchmark.virtual");
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+    private static final int ROUNDS = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        String postgresUrl = System.getProperty("benchmark.postgres.url");
+        if (postgresUrl != null) {
+            registry.add("spring.datasource.url", () -> postgresUrl);
+            registry.add("spring.datasource.username", () -> System.getProperty("benchmark.postgres.username", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("benchmark.postgres.password", "1234"));
+        } else {
+            registry.add("spring.datasource.url", () -> "jdbc:h2:mem:loadbench;LOCK_TIMEOUT=10000");
+            registry.add("spring.datasource.username", () -> "sa");
+            registry.add("spring.datasource.password", () -> "");
+            registry.add("spring.datasource.driverClassName", () -> "org.h2.Driver");
+            registry.add("spring.jpa.database", () -> "h2");
+            registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.H2Dialect");
+        }
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("spring.threads.virtual.enabled", () -> VIRTUAL);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> Integer.getInteger("benchmark.pool-size", 20));
+        registry.add("spring.datasource.hikari.connection-timeout", () -> 30000);
+        registry.add("swift.cache.enabled", () -> false);
+        registry.add("swift.render-cache.enabled", () -> false);
+        //the rows are filled in behind the API after startup and the requests measure the database path
+        registry.add("swift.snapshot.enabled", () -> false);
+    }
+
+    @BeforeEach
+    void fill() {
+        HttpLoad.fill(jdbcTemplate);
+    }
+
+    @Test
+    void loadLookupAndCountryEndpoints() throws Exception {
+        String baseUrl = "http://localhost:" + port + "/v1/swift-codes";
+        System.out.printf("%s threads, %d concurrent clients, %d ms per query, Java %s%n",
+                VIRTUAL ? "virtual" : "platform", CONCURRENCY, QueryLatency.LATENCY_MS, JavaVersion.getJavaVersion());
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        for (int round = 1; round <= ROUNDS; round++) {
+            //the first round warms up the JIT and the connections, compare the later ones
+            HttpLoad.run(client, round, "lookup", REQUESTS, CONCURRENCY, i -> HttpLoad.lookupUrl(baseUrl, i));
+            HttpLoad.run(client, round, "country", REQUESTS, CONCURRENCY, i -> HttpLoad.countryUrl(baseUrl, i));
+        }
+        System.out.printf("peak JVM threads: %d%n", ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+}
@@ -5,19 +5,34 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import com.example.swift_api.model.SwiftCode;
 import com.example.swift_api.repository.SwiftCodeRepository;
+import com.example.swift_api.service.DatasetVersion;
+import com.example.swift_api.service.RenderedResponseCache;
+import com.example.swift_api.service.SwiftCodeLookupService;
+import com.example.swift_api.service.SwiftCodeSnapshotService;
+import com.example.swift_api.service.SwiftCodesChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -28,26 +43,39 @@ public class SwiftCodeControllerTest {
     @Mock
     private SwiftCodeRepository swiftCodeRepository;  //Mocked database
 
-    @InjectMocks
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final DatasetVersion datasetVersion = new DatasetVersion();
+
     private SwiftCodeController swiftCodeController; //Controller being tested
 
+    @BeforeEach
+    void setup(){
+        //lookups go through the real service, uncached, so they reach the mocked repository
+        SwiftCodeLookupService lookupService = new SwiftCodeLookupService(swiftCodeRepository,
+                new SwiftCodeSnapshotService(swiftCodeRepository, false), false, 0, Duration.ZERO);
+        //the rendered cache is off, so the DTOs can be checked
+        swiftCodeController = new SwiftCodeController(swiftCodeRepository, lookupService, eventPublisher, datasetVersion,
+                new RenderedResponseCache(new ObjectMapper(), false, 0, false, 0));
+    }
+
     @Test
     void testGetSwiftCodeDetails_HQ_Success(){
-        SwiftCode mockSwiftCode = new SwiftCode("HQTESTXXX", "HQ Bank", "US",
+        SwiftCode mockSwiftCode = new SwiftCode("HQTSUS33XXX", "HQ Bank", "US",
                 "United States", "123 HQ St");
 
-        when(swiftCodeRepository.findById("HQTESTXXX")).thenReturn(Optional.of(mockSwiftCode));
-        when(swiftCodeRepository.findByHqSwiftCode("HQTESTXXX")).thenReturn(List.of(
+        when(swiftCodeRepository.findWithBranches("HQTSUS33XXX")).thenReturn(List.of(mockSwiftCode,
                 new SwiftCode("BRANCH1", "Branch 1", "US",
                         "United States", "456 Branch St")));
 
-        ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails("HQTESTXXX");
+        ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails("HQTSUS33XXX", null, null, null);
 
         SwiftCodeController.HeadquartersResponse responseBody = (SwiftCodeController.HeadquartersResponse) response.getBody();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(responseBody);
-        assertEquals("HQTESTXXX", responseBody.getSwiftCode()); //Check HQ SWIFT code
+        assertEquals("HQTSUS33XXX", responseBody.getSwiftCode()); //Check HQ SWIFT code
         assertFalse(responseBody.getBranches().isEmpty()); //Ensure there are branches
         assertEquals("BRANCH1", responseBody.getBranches().get(0).getSwiftCode());
 
@@ -57,22 +85,48 @@ public class SwiftCodeControllerTest {
     @Test
     void testGetSwiftCodeDetails_NotFound(){
 
-        when(swiftCodeRepository.findById("UNKNOWN123")).thenReturn(Optional.empty());
+        when(swiftCodeRepository.findWithBranches("UNKNUS33123")).thenReturn(List.of());
 
-        ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails("UNKNOWN123");
+        ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails("UNKNUS33123", null, null, null);
 
         SwiftCodeController.MessageResponse responseBody = (SwiftCodeController.MessageResponse) response.getBody();
         assert responseBody != null;
         assertEquals("SWIFT code not found", responseBody.getMessage());
     }
 
+    @Test
+    void testMalformedCodesNeverReachTheRepository() {
+        //bad characters, unknown country, lower case, 9 and 10 characters, an X branch that is not XXX
+        String[] malformed = {"BANK-PLPWXXX", "BANKQQPWXXX", "bankplpwxxx", "BANKPLPW1", "BANKPLPW12", "BANKPLPWX01"};
+
+        for (String swiftCode : malformed) {
+            assertEquals(HttpStatus.BAD_REQUEST,
+                    swiftCodeController.getSwiftCodesDetails(swiftCode, null, null, null).getStatusCode(), swiftCode);
+        }
+        verifyNoInteractions(swiftCodeRepository);
+    }
+
+    @Test
+    void testDeleteSwiftCode_LegacyCodesAreNotRejected() {
+        //stored before codes were validated
+        SwiftCode legacy = new SwiftCode("bankplpwxxx", "Bank", "PL", "Poland", "1 Street");
+        when(swiftCodeRepository.findById("bankplpwxxx")).thenReturn(Optional.of(legacy));
+        when(swiftCodeRepository.findById("BANKPLPW1")).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.OK, swiftCodeController.deleteSwiftCode("bankplpwxxx").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, swiftCodeController.deleteSwiftCode("BANKPLPW1").getStatusCode());
+
+        verify(swiftCodeRepository).deleteById("bankplpwxxx");
+        verify(swiftCodeRepository, never()).deleteById("BANKPLPW1");
+    }
+
     @Test
     void testGetSwiftCodeDetails_InvalidFormat() {
 
         String[] invalidSwiftCodes = {"SHORT", "TOOLONGSWIFTCODE", "", null};
 
         for (String invalidCode : invalidSwiftCodes) {
-            ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails(invalidCode);
+            ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails(invalidCode, null, null, null);
 
             assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(),
                     "Expected 400 BAD REQUEST for invalid SWIFT code: " + invalidCode);
@@ -88,12 +142,12 @@ public class SwiftCodeControllerTest {
     @Test
     void testGetSwiftCodeDetails_Branch_Success() {
 
-        SwiftCode mockBranchSwiftCode = new SwiftCode("BRANCH123", "Branch Bank", "US",
+        SwiftCode mockBranchSwiftCode = new SwiftCode("BRCHUS33123", "Branch Bank", "US",
                 "United States", "456 Branch St");
 
-        when(swiftCodeRepository.findById("BRANCH123")).thenReturn(Optional.of(mockBranchSwiftCode));
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenReturn(List.of(mockBranchSwiftCode));
 
-        ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails("BRANCH123");
+        ResponseEntity<?> response = swiftCodeController.getSwiftCodesDetails("BRCHUS33123", null, null, null);
 
         if (!(response.getBody() instanceof SwiftCodeController.BranchResponse)) {
             fail("Expected a BranchResponse, but got: " + Objects.requireNonNull(response.getBody()).getClass().getName());
@@ -103,7 +157,7 @@ public class SwiftCodeControllerTest {
                 (SwiftCodeController.BranchResponse) response.getBody();
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("BRANCH123", responseBody.getSwiftCode());
+        assertEquals("BRCHUS33123", responseBody.getSwiftCode());
         assertEquals("Branch Bank", responseBody.getBankName());
         assertEquals("456 Branch St", responseBody.getAddress());
     }
@@ -129,15 +183,50 @@ public class SwiftCodeControllerTest {
         assertEquals("SWIFT code added successfully", responseBody.getMessage());
     }
 
+    @Test
+    void testAddSwiftCode_HeadquartersLinksOrphanBranches(){
+        when(swiftCodeRepository.findById("BANKGB2LXXX")).thenReturn(Optional.empty());
+
+        SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
+        request.setSwiftCode("BANKGB2LXXX");
+        request.setBankName("New Bank");
+        request.setCountryISO2("GB");
+        request.setCountryName("United Kingdom");
+        request.setAddress("1 HQ St");
+
+        ResponseEntity<?> response = swiftCodeController.addSwiftCode(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(swiftCodeRepository).linkOrphanBranches("BANKGB2LXXX", "BANKGB2L");
+    }
+
+    @Test
+    void testAddSwiftCode_BranchLinkedToExistingHeadquarters(){
+        when(swiftCodeRepository.findById("BANKGB2L001")).thenReturn(Optional.empty());
+        when(swiftCodeRepository.findHeadquarterCodes(List.of("BANKGB2LXXX"))).thenReturn(List.of("BANKGB2LXXX"));
+
+        SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
+        request.setSwiftCode("BANKGB2L001");
+        request.setBankName("New Bank");
+        request.setCountryISO2("GB");
+        request.setCountryName("United Kingdom");
+        request.setAddress("1 Branch St");
+
+        swiftCodeController.addSwiftCode(request);
+
+        verify(swiftCodeRepository).save(argThat(saved -> "BANKGB2LXXX".equals(saved.getHqSwiftCode())));
+        verify(swiftCodeRepository, never()).linkOrphanBranches(anyString(), anyString());
+    }
+
     @Test
     void testAddSwiftCode_Conflict(){
-        SwiftCode existingSwiftCode = new SwiftCode("DUPLICATE", "Bank", "FR",
+        SwiftCode existingSwiftCode = new SwiftCode("DUPLFRPPXXX", "Bank", "FR",
                 "France", "123 Street");
 
-        when(swiftCodeRepository.findById("DUPLICATE")).thenReturn(Optional.of(existingSwiftCode));
+        when(swiftCodeRepository.findById("DUPLFRPPXXX")).thenReturn(Optional.of(existingSwiftCode));
 
         SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
-        request.setSwiftCode("DUPLICATE");
+        request.setSwiftCode("DUPLFRPPXXX");
         request.setBankName("Bank");
         request.setCountryISO2("FR");
         request.setCountryName("France");
@@ -157,16 +246,16 @@ public class SwiftCodeControllerTest {
 
     @Test
     void testDeleteSwiftCode_Success(){
-        SwiftCode mockSwiftCode = new SwiftCode("DELETE123", "Bank", "DE",
+        SwiftCode mockSwiftCode = new SwiftCode("DELEDEFF123", "Bank", "DE",
                 "Germany", "789 Street");
 
-        when(swiftCodeRepository.findById("DELETE123")).thenReturn(Optional.of(mockSwiftCode));
+        when(swiftCodeRepository.findById("DELEDEFF123")).thenReturn(Optional.of(mockSwiftCode));
 
-        ResponseEntity<?> response = swiftCodeController.deleteSwiftCode("DELETE123");
+        ResponseEntity<?> response = swiftCodeController.deleteSwiftCode("DELEDEFF123");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
-        verify(swiftCodeRepository, times(1)).deleteById("DELETE123");
+        verify(swiftCodeRepository, times(1)).deleteById("DELEDEFF123");
 
         SwiftCodeController.MessageResponse responseBody = (SwiftCodeController.MessageResponse) response.getBody();
         assert responseBody != null;
@@ -175,9 +264,9 @@ public class SwiftCodeControllerTest {
 
     @Test
     void testDeleteSwiftCode_NotFound(){
-        when(swiftCodeRepository.findById("NOTEXIST")).thenReturn(Optional.empty());
+        when(swiftCodeRepository.findById("NOTEUS33")).thenReturn(Optional.empty());
 
-        ResponseEntity<?> response = swiftCodeController.deleteSwiftCode("NOTEXIST");
+        ResponseEntity<?> response = swiftCodeController.deleteSwiftCode("NOTEUS33");
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
 
@@ -199,7 +288,7 @@ public class SwiftCodeControllerTest {
 
         when(swiftCodeRepository.findByCountryISO2IgnoreCase("US")).thenReturn(mockSwiftCodes);
 
-        ResponseEntity<?> response = swiftCodeController.getSwiftCodeByCountry("US");
+        ResponseEntity<?> response = swiftCodeController.getSwiftCodeByCountry("US", null, null, null, null, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
 
@@ -210,11 +299,27 @@ public class SwiftCodeControllerTest {
         assertEquals("BANKUS2", responseBody.getSwiftCodes().get(1).getSwiftCode());
     }
 
+    @Test
+    void testGetSwiftCodeByCountry_MalformedCountriesNeverReachTheRepository(){
+        //unassigned, too short, too long, not letters
+        String[] malformed = {"XX", "P", "POL", "P1", ""};
+
+        for (String country : malformed) {
+            ResponseEntity<?> response = swiftCodeController.getSwiftCodeByCountry(country, null, null, null, null, null);
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), country);
+            assertEquals("Invalid country ISO2 code format",
+                    ((SwiftCodeController.MessageResponse) Objects.requireNonNull(response.getBody())).getMessage());
+        }
+        assertEquals(HttpStatus.BAD_REQUEST,
+                swiftCodeController.getSwiftCodeByCountry("XX", 10, null, null, null, null).getStatusCode());
+        verifyNoInteractions(swiftCodeRepository);
+    }
+
     @Test
     void testGetSwiftCodeByCountry_NotFound(){
-        when(swiftCodeRepository.findByCountryISO2IgnoreCase("XX")).thenReturn(List.of());
+        when(swiftCodeRepository.findByCountryISO2IgnoreCase("FR")).thenReturn(List.of());
 
-        ResponseEntity<?> response = swiftCodeController.getSwiftCodeByCountry("XX");
+        ResponseEntity<?> response = swiftCodeController.getSwiftCodeByCountry("FR", null, null, null, null, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
 
@@ -222,4 +327,227 @@ public class SwiftCodeControllerTest {
         assert responseBody != null;
         assertEquals("No SWIFT codes found for the given country", responseBody.getMessage());
     }
+
+    @Test
+    void testGetSwiftCodeByCountry_Paged(){
+        List<SwiftCode> mockSwiftCodes = List.of(
+                new SwiftCode("BANKUS1", "Bank US1", "US", "United States", "123 St"),
+                new SwiftCode("BANKUS2", "Bank US2", "US", "United States", "456 St"),
+                new SwiftCode("BANKUS3", "Bank US3", "US", "United States", "789 St")
+        );
+        when(swiftCodeRepository.findCountryPage(eq("US"), eq(""), any(Limit.class))).thenReturn(mockSwiftCodes);
+
+        ResponseEntity<?> response = swiftCodeController.getSwiftCodeByCountry("US", 2, null, null, null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SwiftCodeController.CountrySwiftCodeResponse firstPage = (SwiftCodeController.CountrySwiftCodeResponse) response.getBody();
+        assert firstPage != null;
+        assertEquals(2, firstPage.getSwiftCodes().size());
+        assertNotNull(firstPage.getNextCursor());
+        //one row more than the page is read to find out whether a next page exists
+        verify(swiftCodeRepository).findCountryPage("US", "", Limit.of(3));
+
+        when(swiftCodeRepository.findCountryPage(eq("US"), eq("BANKUS2"), any(Limit.class)))
+                .thenReturn(mockSwiftCodes.subList(2, 3));
+        SwiftCodeController.CountrySwiftCodeResponse lastPage = (SwiftCodeController.CountrySwiftCodeResponse)
+                swiftCodeController.getSwiftCodeByCountry("US", 2, firstPage.getNextCursor(), null, null, null).getBody();
+        assert lastPage != null;
+        assertEquals("BANKUS3", lastPage.getSwiftCodes().get(0).getSwiftCode());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testGetSwiftCodeByCountry_InvalidPageRequest(){
+        assertEquals(HttpStatus.BAD_REQUEST, swiftCodeController.getSwiftCodeByCountry("US", 0, null, null, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                swiftCodeController.getSwiftCodeByCountry("US", SwiftCodeController.MAX_PAGE_SIZE + 1, null, null, null, null).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, swiftCodeController.getSwiftCodeByCountry("US", 10, "not a cursor!", null, null, null).getStatusCode());
+        verify(swiftCodeRepository, never()).findCountryPage(anyString(), anyString(), any(Limit.class));
+    }
+
+    @Test
+    void testBatchLookup(){
+        SwiftCode hq = new SwiftCode("BANKPLPWXXX", "Bank", "PL", "POLAND", "1 Main St");
+        SwiftCode branch = new SwiftCode("BANKPLPW001", "Bank", "PL", "POLAND", "2 Main St");
+        branch.setHqSwiftCode("BANKPLPWXXX");
+        when(swiftCodeRepository.findAllWithBranches(any())).thenReturn(List.of(hq, branch));
+
+        SwiftCodeController.BatchLookupRequest request = new SwiftCodeController.BatchLookupRequest();
+        request.setSwiftCodes(List.of("BANKPLPWXXX", "BANKPLPW001", "UNKNPLPWXXX", "SHORT", "BANKPLPWXXX"));
+        ResponseEntity<?> response = swiftCodeController.batchLookup(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        SwiftCodeController.BatchLookupResponse responseBody = (SwiftCodeController.BatchLookupResponse) response.getBody();
+        assert responseBody != null;
+        assertEquals(2, responseBody.getFound().size());
+        SwiftCodeController.HeadquartersResponse hqResponse = (SwiftCodeController.HeadquartersResponse) responseBody.getFound().get(0);
+        assertEquals("BANKPLPW001", hqResponse.getBranches().get(0).getSwiftCode());
+        assertInstanceOf(SwiftCodeController.BranchResponse.class, responseBody.getFound().get(1));
+        assertEquals(List.of("UNKNPLPWXXX"), responseBody.getNotFound());
+        assertEquals(List.of("SHORT"), responseBody.getInvalid());
+        //one query for the codes and their branches, whatever the size of the batch
+        verify(swiftCodeRepository, times(1)).findAllWithBranches(any());
+        verify(swiftCodeRepository, never()).findWithBranches(anyString());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_NotModified(){
+        SwiftCode branch = new SwiftCode("BRCHUS33123", "Branch Bank", "US", "United States", "456 Branch St");
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenReturn(List.of(branch));
+
+        ResponseEntity<?> first = swiftCodeController.getSwiftCodesDetails("BRCHUS33123", null, null, null);
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<?> second = swiftCodeController.getSwiftCodesDetails("BRCHUS33123", etag, null, null);
+        ResponseEntity<?> country = swiftCodeController.getSwiftCodeByCountry("US", null, null, "\"other\", " + etag, null, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, second.getStatusCode());
+        assertNull(second.getBody());
+        assertEquals(HttpStatus.NOT_MODIFIED, country.getStatusCode());
+        //answered without reading anything
+        verify(swiftCodeRepository, times(1)).findWithBranches("BRCHUS33123");
+        verify(swiftCodeRepository, never()).findByCountryISO2IgnoreCase(anyString());
+
+        //after a change the old tag no longer matches
+        datasetVersion.onSwiftCodesChanged(SwiftCodesChangedEvent.of("BRCHUS33123"));
+        ResponseEntity<?> third = swiftCodeController.getSwiftCodesDetails("BRCHUS33123", etag, null, null);
+        assertEquals(HttpStatus.OK, third.getStatusCode());
+        assertNotEquals(etag, third.getHeaders().getETag());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_AnyTagOnlyMatchesAnExistingCode(){
+        SwiftCode branch = new SwiftCode("BRCHUS33123", "Branch Bank", "US", "United States", "456 Branch St");
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenReturn(List.of(branch));
+        when(swiftCodeRepository.findWithBranches("UNKNUS33123")).thenReturn(List.of());
+        when(swiftCodeRepository.findByCountryISO2IgnoreCase("FR")).thenReturn(List.of());
+
+        ResponseEntity<?> existing = swiftCodeController.getSwiftCodesDetails("BRCHUS33123", "*", null, null);
+        ResponseEntity<?> missing = swiftCodeController.getSwiftCodesDetails("UNKNUS33123", "*", null, null);
+        ResponseEntity<?> missingCountry = swiftCodeController.getSwiftCodeByCountry("FR", null, null, "*", null, null);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, existing.getStatusCode());
+        assertEquals(datasetVersion.etag(), existing.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, missingCountry.getStatusCode());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_TagOfAnotherFormatDoesNotMatch() throws Exception {
+        RenderedResponseCache renderCache = new RenderedResponseCache(new ObjectMapper(), true, 1 << 20, true, 0);
+        SwiftCodeController controller = new SwiftCodeController(swiftCodeRepository,
+                new SwiftCodeLookupService(swiftCodeRepository, new SwiftCodeSnapshotService(swiftCodeRepository, false),
+                        false, 0, Duration.ZERO), eventPublisher, datasetVersion, renderCache);
+        SwiftCode branch = new SwiftCode("BRCHUS33123", "Branch Bank", "US", "United States", "456 Branch St");
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenReturn(List.of(branch));
+
+        String cborGzipTag = controller.getSwiftCodesDetails("BRCHUS33123", null, "application/cbor", "gzip")
+                .getHeaders().getETag();
+        String cborTag = controller.getSwiftCodesDetails("BRCHUS33123", null, "application/cbor", null)
+                .getHeaders().getETag();
+
+        //a JSON request is answered in full whatever CBOR copy the client holds
+        ResponseEntity<?> json = controller.getSwiftCodesDetails("BRCHUS33123", cborGzipTag + ", " + cborTag, null, "gzip");
+        assertEquals(HttpStatus.OK, json.getStatusCode());
+        assertEquals("Branch Bank", new ObjectMapper().readTree(
+                new GZIPInputStream(new ByteArrayInputStream((byte[]) json.getBody())))
+                .get("bankName").asText());
+        //and so is a client that no longer accepts gzip but holds the gzipped copy
+        ResponseEntity<?> identity = controller.getSwiftCodesDetails("BRCHUS33123", cborGzipTag, "application/cbor", null);
+        assertEquals(HttpStatus.OK, identity.getStatusCode());
+        assertEquals(cborTag, identity.getHeaders().getETag());
+        //the tag of the negotiated representation still matches
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                controller.getSwiftCodesDetails("BRCHUS33123", cborGzipTag, "application/cbor", "gzip").getStatusCode());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_SnapshotModeLooksCodesUpInTheKeyIndex(){
+        //only with the snapshot on do the lookups go through SwiftCodeKeyIndex, otherwise they query the repository
+        SwiftCode hq = new SwiftCode("HQTSUS33XXX", "HQ Bank", "US", "United States", "123 HQ St");
+        SwiftCode branch = new SwiftCode("HQTSUS33123", "HQ Bank", "US", "United States", "456 Branch St",
+                false, "HQTSUS33XXX");
+        when(swiftCodeRepository.findAll()).thenReturn(List.of(hq, branch));
+        SwiftCodeSnapshotService snapshotService = new SwiftCodeSnapshotService(swiftCodeRepository, true);
+        snapshotService.load();
+        SwiftCodeController controller = new SwiftCodeController(swiftCodeRepository,
+                new SwiftCodeLookupService(swiftCodeRepository, snapshotService, false, 0, Duration.ZERO),
+                eventPublisher, datasetVersion, new RenderedResponseCache(new ObjectMapper(), false, 0, false, 0));
+
+        ResponseEntity<?> found = controller.getSwiftCodesDetails("HQTSUS33XXX", null, null, null);
+        ResponseEntity<?> missing = controller.getSwiftCodesDetails("UNKNUS33XXX", null, null, null);
+        SwiftCodeController.BatchLookupRequest request = new SwiftCodeController.BatchLookupRequest();
+        request.setSwiftCodes(List.of("HQTSUS33123", "UNKNUS33XXX"));
+        SwiftCodeController.BatchLookupResponse batch =
+                (SwiftCodeController.BatchLookupResponse) controller.batchLookup(request).getBody();
+
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        SwiftCodeController.HeadquartersResponse body = (SwiftCodeController.HeadquartersResponse) found.getBody();
+        assertEquals("HQTSUS33123", Objects.requireNonNull(body).getBranches().get(0).getSwiftCode());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertEquals(List.of("UNKNUS33XXX"), Objects.requireNonNull(batch).getNotFound());
+        assertEquals(1, batch.getFound().size());
+        //everything was answered from the snapshot loaded once
+        verify(swiftCodeRepository, times(1)).findAll();
+        verify(swiftCodeRepository, never()).findWithBranches(anyString());
+        verify(swiftCodeRepository, never()).findAllWithBranches(any());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_ServesRenderedBytes() throws Exception {
+        RenderedResponseCache renderCache = new RenderedResponseCache(new ObjectMapper(), true, 1 << 20, true, 0);
+        SwiftCodeController controller = new SwiftCodeController(swiftCodeRepository,
+                new SwiftCodeLookupService(swiftCodeRepository, new SwiftCodeSnapshotService(swiftCodeRepository, false),
+                        false, 0, Duration.ZERO), eventPublisher, datasetVersion, renderCache);
+        SwiftCode branch = new SwiftCode("BRCHUS33123", "Branch Bank", "US", "United States", "456 Branch St");
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenReturn(List.of(branch));
+
+        ResponseEntity<?> first = controller.getSwiftCodesDetails("BRCHUS33123", null, null, null);
+        ResponseEntity<?> second = controller.getSwiftCodesDetails("BRCHUS33123", null, null, "br, gzip;q=0.8");
+
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals("Branch Bank",
+                new ObjectMapper().readTree((byte[]) first.getBody()).get("bankName").asText());
+        assertEquals("gzip", second.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        //rendered once, the second request only picks the gzipped copy
+        verify(swiftCodeRepository, times(1)).findWithBranches("BRCHUS33123");
+        assertEquals(1, renderCache.getStats().getHitCount());
+
+        //a client holding the gzipped copy is told it is still current, with the tag it holds
+        String gzipTag = second.getHeaders().getETag();
+        ResponseEntity<?> notModified = controller.getSwiftCodesDetails("BRCHUS33123", gzipTag, null, "gzip");
+        assertEquals(HttpStatus.NOT_MODIFIED, notModified.getStatusCode());
+        assertEquals(gzipTag, notModified.getHeaders().getETag());
+
+        //a change drops the rendered copy
+        renderCache.onSwiftCodesChanged(SwiftCodesChangedEvent.of("BRCHUS33123"));
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenReturn(List.of());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getSwiftCodesDetails("BRCHUS33123", null, null, null).getStatusCode());
+    }
+
+    @Test
+    void testGetSwiftCodeDetails_RenderRacingAChangeIsNotServedAfterIt() throws Exception {
+        RenderedResponseCache renderCache = new RenderedResponseCache(new ObjectMapper(), true, 1 << 20, true, 0);
+        SwiftCodeController controller = new SwiftCodeController(swiftCodeRepository,
+                new SwiftCodeLookupService(swiftCodeRepository, new SwiftCodeSnapshotService(swiftCodeRepository, false),
+                        false, 0, Duration.ZERO), eventPublisher, datasetVersion, renderCache);
+        SwiftCode before = new SwiftCode("BRCHUS33123", "Old Name", "US", "United States", "456 Branch St");
+        SwiftCode after = new SwiftCode("BRCHUS33123", "New Name", "US", "United States", "456 Branch St");
+        //the change commits while the first request is still rendering what it read before
+        when(swiftCodeRepository.findWithBranches("BRCHUS33123")).thenAnswer(invocation -> {
+            SwiftCodesChangedEvent event = SwiftCodesChangedEvent.of("BRCHUS33123");
+            renderCache.onSwiftCodesChanged(event);
+            datasetVersion.onSwiftCodesChanged(event);
+            return List.of(before);
+        }).thenReturn(List.of(after));
+
+        ResponseEntity<?> racing = controller.getSwiftCodesDetails("BRCHUS33123", null, null, null);
+        ResponseEntity<?> next = controller.getSwiftCodesDetails("BRCHUS33123", null, null, null);
+
+        assertEquals("Old Name", new ObjectMapper().readTree((byte[]) racing.getBody()).get("bankName").asText());
+        assertEquals("New Name", new ObjectMapper().readTree((byte[]) next.getBody()).get("bankName").asText());
+        assertNotEquals(racing.getHeaders().getETag(), next.getHeaders().getETag());
+    }
 }
@@ -1,24 +1,30 @@
 package com.example.swift_api.controller;
 
-import com.example.swift_api.service.SwiftCodeImportService;
+import com.example.swift_api.service.ImportJob;
+import com.example.swift_api.service.ImportJobService;
+import com.example.swift_api.service.ImportOptions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class SwiftCodeImportControllerTest {
 
     @Mock
-    private SwiftCodeImportService importService;
+    private ImportJobService importJobService;
 
     @InjectMocks
     private SwiftCodeImportController importController;
@@ -30,14 +36,17 @@ public class SwiftCodeImportControllerTest {
                 new byte[]{1, 2, 3, 4} // Fake content
         );
 
-        doNothing().when(importService).importSwiftCodes(mockFile);
+        ImportOptions options = new ImportOptions();
+        ImportJob job = new ImportJob("job-1", "test.xlsx");
+        when(importJobService.submit(mockFile, options)).thenReturn(job);
 
-        ResponseEntity<?> response = importController.uploadFile(mockFile);
+        ResponseEntity<?> response = importController.uploadFile(mockFile, options);
 
-        assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals("File uploaded and processed successfully", response.getBody());
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertSame(job, response.getBody());
+        assertEquals("/v1/swift-codes/import/job-1", response.getHeaders().getLocation().toString());
 
-        verify(importService, times(1)).importSwiftCodes(mockFile);
+        verify(importJobService, times(1)).submit(mockFile, options);
     }
 
     @Test
@@ -47,11 +56,36 @@ public class SwiftCodeImportControllerTest {
                 new byte[]{} // Empty content
         );
 
-        ResponseEntity<String> response = importController.uploadFile(emptyFile);
+        ResponseEntity<?> response = importController.uploadFile(emptyFile, new ImportOptions());
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode()); // Expecting 400 BAD REQUEST
         assertEquals("Please upload valid excel file", response.getBody());
 
-        verify(importService, never()).importSwiftCodes(any(MultipartFile.class));
+        verify(importJobService, never()).submit(any(MultipartFile.class), any(ImportOptions.class));
+    }
+
+    @Test
+    void testUploadFile_QueueFull() {
+        MultipartFile mockFile = new MockMultipartFile("file", "test.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", new byte[]{1});
+
+        when(importJobService.submit(eq(mockFile), any(ImportOptions.class)))
+                .thenThrow(new TaskRejectedException("queue full"));
+
+        ResponseEntity<?> response = importController.uploadFile(mockFile, new ImportOptions());
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void testGetImportJob_NotFound() {
+        when(importJobService.getJob("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = importController.getImportJob("missing");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        SwiftCodeController.MessageResponse responseBody = (SwiftCodeController.MessageResponse) response.getBody();
+        assert responseBody != null;
+        assertEquals("Import job not found", responseBody.getMessage());
     }
 }
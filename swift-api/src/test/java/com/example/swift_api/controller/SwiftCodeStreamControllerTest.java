@@ -0,0 +1,75 @@
+package com.example.swift_api.controller;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.service.SwiftCodeStreamService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SwiftCodeStreamControllerTest {
+
+    @Mock
+    private SwiftCodeStreamService streamService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private SwiftCodeStreamController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new SwiftCodeStreamController(streamService, objectMapper);
+    }
+
+    @Test
+    void testStreamSwiftCodesByCountry_NameComesFromFirstRow() throws Exception {
+        when(streamService.hasCountry("pl")).thenReturn(true);
+        doAnswer(invocation -> {
+            SwiftCodeStreamService.RowConsumer consumer = invocation.getArgument(1);
+            consumer.accept(new SwiftCode("AAAAPLPWXXX", "Bank A", "PL", "POLAND", "1 HQ St"));
+            consumer.accept(new SwiftCode("BBBBPLPWXXX", "Bank B", "PL", "POLAND", "2 HQ St"));
+            return null;
+        }).when(streamService).forEachInCountry(eq("pl"), any());
+
+        JsonNode document = stream("pl");
+
+        assertEquals("PL", document.get("countryISO2").asText());
+        assertEquals("POLAND", document.get("countryName").asText());
+        assertEquals(2, document.get("swiftCodes").size());
+        assertEquals("BBBBPLPWXXX", document.get("swiftCodes").get(1).get("swiftCode").asText());
+    }
+
+    @Test
+    void testStreamSwiftCodesByCountry_CountryEmptiedAfterCheckIsWholeDocument() throws Exception {
+        when(streamService.hasCountry("pl")).thenReturn(true);
+
+        JsonNode document = stream("pl");
+
+        assertEquals("PL", document.get("countryISO2").asText());
+        assertTrue(document.get("countryName").isNull());
+        assertEquals(0, document.get("swiftCodes").size());
+    }
+
+    private JsonNode stream(String countryISO2) throws Exception {
+        ResponseEntity<StreamingResponseBody> response = controller.streamSwiftCodesByCountry(countryISO2, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
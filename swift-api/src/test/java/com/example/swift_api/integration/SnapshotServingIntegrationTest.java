@@ -0,0 +1,67 @@
+package com.example.swift_api.integration;
+
+import com.example.swift_api.controller.SwiftCodeController;
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import com.example.swift_api.service.SwiftCodeSnapshotService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "swift.snapshot.enabled=true")
+public class SnapshotServingIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Autowired
+    private SwiftCodeSnapshotService snapshotService;
+
+    @Test
+    void testWritesThroughTheApiAreServedFromTheNextSnapshot() throws Exception {
+        String baseUrl = "http://localhost:" + port + "/v1/swift-codes";
+        //written behind the API's back, so only a reload can see it
+        swiftCodeRepository.save(new SwiftCode("SNAPPLPW001", "Snap Bank", "PL", "POLAND", "1 Branch St"));
+        assertTrue(snapshotService.current().isPresent());
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity(baseUrl + "/SNAPPLPW001", String.class).getStatusCode());
+
+        SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
+        request.setSwiftCode("SNAPPLPWXXX");
+        request.setBankName("Snap Bank");
+        request.setCountryISO2("PL");
+        request.setCountryName("POLAND");
+        request.setAddress("1 HQ St");
+        assertEquals(HttpStatus.CREATED,
+                restTemplate.postForEntity(baseUrl, request, String.class).getStatusCode());
+
+        //the new headquarters and the branch linked to it on insert are both in the swapped-in snapshot
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/SNAPPLPWXXX", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        JsonNode body = new ObjectMapper().readTree(response.getBody());
+        assertEquals("SNAPPLPW001", body.get("branches").get(0).get("swiftCode").asText());
+        assertEquals(HttpStatus.OK,
+                restTemplate.getForEntity(baseUrl + "/country/pl", String.class).getStatusCode());
+        JsonNode streamed = new ObjectMapper().readTree(restTemplate.getForObject(baseUrl + "/country/pl/stream", String.class));
+        assertEquals(2, streamed.get("swiftCodes").size());
+
+        restTemplate.delete(baseUrl + "/SNAPPLPWXXX");
+        assertEquals(HttpStatus.NOT_FOUND,
+                restTemplate.getForEntity(baseUrl + "/SNAPPLPWXXX", String.class).getStatusCode());
+    }
+}
@@ -4,28 +4,46 @@ package com.example.swift_api.integration;
 import com.example.swift_api.controller.SwiftCodeController;
 import com.example.swift_api.model.SwiftCode;
 import com.example.swift_api.repository.SwiftCodeRepository;
+import com.example.swift_api.service.SwiftCodesChangedEvent;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.apache.coyote.Response;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.*;
 
 
 import static org.junit.jupiter.api.Assertions.*;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.zip.GZIPInputStream;
 
 
 @ExtendWith(org.springframework.test.context.junit.jupiter.SpringExtension.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+//rows are saved behind the API's back, so the lookups are read from the database (SnapshotServingIntegrationTest
+//covers the snapshot)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "swift.snapshot.enabled=false")
 public class SwiftCodeIntegrationTest {
 
     @LocalServerPort
@@ -37,18 +55,23 @@ public class SwiftCodeIntegrationTest {
     @Autowired
     private SwiftCodeRepository swiftCodeRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private String baseUrl;
 
     @BeforeEach
     void setup(){
         baseUrl = "http://localhost:" + port + "/v1/swift-codes";
         swiftCodeRepository.deleteAll();
+        //the rows were removed behind the API's back, rendered responses of earlier tests must go too
+        eventPublisher.publishEvent(SwiftCodesChangedEvent.bulk());
     }
 
     @Test
     void testAddAndRetrieveValidSwiftCode() throws JsonProcessingException {
         SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
-        request.setSwiftCode("TEST1234");
+        request.setSwiftCode("TESTUS33");
         request.setAddress("123 Test St");
         request.setBankName("Test Bank");
         request.setCountryISO2("US");
@@ -60,7 +83,7 @@ public class SwiftCodeIntegrationTest {
         String actualMessage = objectMapper.readTree(postResponse.getBody()).get("message").asText();
         assertEquals(HttpStatus.CREATED, postResponse.getStatusCode());
 
-        ResponseEntity<SwiftCode> getResponse = restTemplate.getForEntity(baseUrl + "/TEST1234", SwiftCode.class);
+        ResponseEntity<SwiftCode> getResponse = restTemplate.getForEntity(baseUrl + "/TESTUS33", SwiftCode.class);
         assertEquals("SWIFT code added successfully", actualMessage);
         assertEquals(HttpStatus.OK, getResponse.getStatusCode());
 
@@ -69,9 +92,23 @@ public class SwiftCodeIntegrationTest {
         assertEquals("Test Bank", found.getBankName());
     }
 
+    @Test
+    void testAddMalformedSwiftCodeIsRejected() {
+        SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
+        request.setSwiftCode("TESTQQ33XXX");
+        request.setAddress("123 Test St");
+        request.setBankName("Test Bank");
+        request.setCountryISO2("QQ");
+        request.setCountryName("Nowhere");
+
+        ResponseEntity<String> postResponse = restTemplate.postForEntity(baseUrl, request, String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, postResponse.getStatusCode());
+        assertFalse(swiftCodeRepository.existsById("TESTQQ33XXX"));
+    }
+
     @Test
     void testGetNonExistentSwiftCode() throws JsonProcessingException {
-        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/INVALID123", String.class);
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/NONEUS33123", String.class);
 
         ObjectMapper objectMapper = new ObjectMapper();
         String actualMessage = objectMapper.readTree(response.getBody()).get("message").asText();
@@ -98,6 +135,203 @@ public class SwiftCodeIntegrationTest {
         assertEquals(2, countryResponse.getSwiftCodes().size());
     }
 
+    @Test
+    void testGetSwiftCodeByCountryPaged() throws JsonProcessingException {
+        swiftCodeRepository.saveAll(List.of(
+                new SwiftCode("BANKUS3", "Bank 3", "US", "United States", "789 St"),
+                new SwiftCode("BANKUS1", "Bank 1", "US", "United States", "123 St"),
+                new SwiftCode("BANKUS2", "Bank 2", "US", "United States", "456 St")
+        ));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<String> codes = new ArrayList<>();
+        String url = baseUrl + "/country/us?limit=2";
+        while (url != null) {
+            JsonNode page = objectMapper.readTree(restTemplate.getForObject(url, String.class));
+            page.get("swiftCodes").forEach(code -> codes.add(code.get("swiftCode").asText()));
+            url = page.has("nextCursor") ? baseUrl + "/country/us?limit=2&cursor=" + page.get("nextCursor").asText() : null;
+        }
+        assertEquals(List.of("BANKUS1", "BANKUS2", "BANKUS3"), codes);
+
+        //without limit or cursor the whole country comes in one response, as before
+        JsonNode all = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/country/US", String.class));
+        assertEquals(3, all.get("swiftCodes").size());
+        assertFalse(all.has("nextCursor"));
+    }
+
+    @Test
+    void testStreamSwiftCodes() throws JsonProcessingException {
+        swiftCodeRepository.saveAll(List.of(
+                new SwiftCode("BANKUS2", "Bank 2", "US", "United States", "456 St"),
+                new SwiftCode("BANKUS1", "Bank 1", "US", "United States", "123 St"),
+                new SwiftCode("BANKGB1", "Bank UK", "GB", "United Kingdom", "789 St")
+        ));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        //the streamed country document is the same as the one built in memory
+        JsonNode streamed = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/country/us/stream", String.class));
+        JsonNode built = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/country/us", String.class));
+        assertEquals(built, streamed);
+
+        JsonNode all = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/stream", String.class));
+        assertEquals(3, all.get("swiftCodes").size());
+        assertEquals("BANKGB1", all.get("swiftCodes").get(0).get("swiftCode").asText());
+        assertEquals("United Kingdom", all.get("swiftCodes").get(0).get("countryName").asText());
+
+        ResponseEntity<String> notFound = restTemplate.getForEntity(baseUrl + "/country/FR/stream", String.class);
+        assertEquals(HttpStatus.NOT_FOUND, notFound.getStatusCode());
+        assertEquals("No SWIFT codes found for the given country",
+                objectMapper.readTree(notFound.getBody()).get("message").asText());
+        ResponseEntity<String> malformed = restTemplate.getForEntity(baseUrl + "/country/XX/stream", String.class);
+        assertEquals(HttpStatus.BAD_REQUEST, malformed.getStatusCode());
+        assertEquals("Invalid country ISO2 code format",
+                objectMapper.readTree(malformed.getBody()).get("message").asText());
+    }
+
+    @Test
+    void testBatchLookup() throws JsonProcessingException {
+        SwiftCode hq = new SwiftCode("BTCHPLPWXXX", "Batch Bank", "PL", "POLAND", "1 HQ St");
+        SwiftCode branch = new SwiftCode("BTCHPLPW001", "Batch Bank", "PL", "POLAND", "1 Branch St");
+        branch.setHqSwiftCode("BTCHPLPWXXX");
+        swiftCodeRepository.saveAll(List.of(hq, branch));
+
+        SwiftCodeController.BatchLookupRequest request = new SwiftCodeController.BatchLookupRequest();
+        request.setSwiftCodes(List.of("BTCHPLPWXXX", "BTCHPLPW001", "NONEPLPWXXX", "BAD"));
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl + "/batch-lookup", request, String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        JsonNode body = new ObjectMapper().readTree(response.getBody());
+        assertEquals(2, body.get("found").size());
+        //the same shapes as GET /{swiftCode}
+        JsonNode single = new ObjectMapper().readTree(restTemplate.getForObject(baseUrl + "/BTCHPLPWXXX", String.class));
+        assertEquals(single, body.get("found").get(0));
+        assertEquals("NONEPLPWXXX", body.get("notFound").get(0).asText());
+        assertEquals("BAD", body.get("invalid").get(0).asText());
+
+        request.setSwiftCodes(List.of());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                restTemplate.postForEntity(baseUrl + "/batch-lookup", request, String.class).getStatusCode());
+    }
+
+    @Test
+    void testSearchByPrefixFollowsAddAndDelete() throws JsonProcessingException {
+        SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
+        request.setSwiftCode("SRCHDEFFXXX");
+        request.setAddress("1 Search St");
+        request.setBankName("Search Bank");
+        request.setCountryISO2("DE");
+        request.setCountryName("GERMANY");
+        assertEquals(HttpStatus.CREATED, restTemplate.postForEntity(baseUrl, request, String.class).getStatusCode());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode result = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/search?prefix=srchde", String.class));
+        assertEquals("SRCHDEFFXXX", result.get("swiftCodes").get(0).asText());
+        assertFalse(result.get("hasMore").asBoolean());
+
+        restTemplate.delete(baseUrl + "/SRCHDEFFXXX");
+        result = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/search?prefix=SRCHDE", String.class));
+        assertEquals(0, result.get("swiftCodes").size());
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                restTemplate.getForEntity(baseUrl + "/search?prefix=SRCH&limit=0", String.class).getStatusCode());
+    }
+
+    @Test
+    void testSearchBanksByName() throws JsonProcessingException {
+        SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
+        request.setSwiftCode("TRGMDEFFXXX");
+        request.setAddress("1 Search St");
+        request.setBankName("Trigram Landesbank Hessen");
+        request.setCountryISO2("DE");
+        request.setCountryName("GERMANY");
+        assertEquals(HttpStatus.CREATED, restTemplate.postForEntity(baseUrl, request, String.class).getStatusCode());
+
+        JsonNode result = new ObjectMapper().readTree(
+                restTemplate.getForObject(baseUrl + "/banks/search?name=hessen trigam landesbnk", String.class));
+        JsonNode best = result.get("banks").get(0);
+        assertEquals("Trigram Landesbank Hessen", best.get("bankName").asText());
+        assertEquals("TRGMDEFFXXX", best.get("swiftCodes").get(0).asText());
+    }
+
+    @Test
+    void testConditionalGetUntilDataChanges() {
+        swiftCodeRepository.save(new SwiftCode("ETAGPLPWXXX", "ETag Bank", "PL", "POLAND", "1 HQ St"));
+
+        ResponseEntity<String> first = restTemplate.getForEntity(baseUrl + "/country/PL", String.class);
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(etag);
+        ResponseEntity<String> unchanged = restTemplate.exchange(baseUrl + "/country/PL", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertNull(unchanged.getBody());
+
+        restTemplate.delete(baseUrl + "/ETAGPLPWXXX");
+        ResponseEntity<String> changed = restTemplate.exchange(baseUrl + "/country/PL", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.NOT_FOUND, changed.getStatusCode());
+    }
+
+    @Test
+    void testCountryIsServedGzipped() throws Exception {
+        List<SwiftCode> codes = new ArrayList<>();
+        for(int i = 0; i < 20; i++){
+            codes.add(new SwiftCode(String.format("GZIPPLPW%03d", i), "Gzip Bank", "PL", "POLAND", "Branch St " + i));
+        }
+        swiftCodeRepository.saveAll(codes);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        ResponseEntity<byte[]> gzipped = restTemplate.exchange(baseUrl + "/country/PL", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+        ResponseEntity<String> plain = restTemplate.getForEntity(baseUrl + "/country/PL", String.class);
+
+        assertEquals(HttpStatus.OK, gzipped.getStatusCode());
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(plain.getHeaders().getETag(), gzipped.getHeaders().getETag());
+        try(GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Objects.requireNonNull(gzipped.getBody())))){
+            assertEquals(new String(in.readAllBytes(), StandardCharsets.UTF_8), plain.getBody());
+        }
+        JsonNode stats = new ObjectMapper().readTree(
+                restTemplate.getForObject(baseUrl + "/cache/rendered/stats", String.class));
+        assertEquals(1, stats.get("hitCount").asInt());
+        assertTrue(stats.get("weight").asLong() > 0);
+    }
+
+    @Test
+    void testBinaryEncodings() throws Exception {
+        swiftCodeRepository.save(new SwiftCode("CBORPLPWXXX", "Cbor Bank", "PL", "POLAND", "1 HQ St"));
+        swiftCodeRepository.save(new SwiftCode("CBORPLPW001", "Cbor Bank", "PL", "POLAND", "2 Branch St"));
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        JsonNode json = new ObjectMapper().readTree(restTemplate.getForObject(baseUrl + "/country/PL", String.class));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_CBOR));
+        ResponseEntity<byte[]> country = restTemplate.exchange(baseUrl + "/country/PL", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+        assertEquals(MediaType.APPLICATION_CBOR, country.getHeaders().getContentType());
+        assertTrue(country.getHeaders().getETag().endsWith("-cbor\""));
+        assertEquals(json, cbor.readTree(country.getBody()));
+        ResponseEntity<byte[]> stream = restTemplate.exchange(baseUrl + "/country/PL/stream", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+        assertEquals(json, cbor.readTree(stream.getBody()));
+
+        //pages are written by the Smile converter, tagged with the Smile variant
+        headers.setAccept(List.of(MediaType.parseMediaType("application/x-jackson-smile")));
+        ResponseEntity<byte[]> page = restTemplate.exchange(baseUrl + "/country/PL?limit=1", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class);
+        assertEquals(HttpStatus.OK, page.getStatusCode());
+        assertTrue(page.getHeaders().getETag().endsWith("-smile\""), page.getHeaders().toString());
+        assertEquals("CBORPLPW001", smile.readTree(page.getBody()).get("swiftCodes").get(0).get("swiftCode").asText());
+
+        headers.setIfNoneMatch(page.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, restTemplate.exchange(baseUrl + "/country/PL?limit=1", HttpMethod.GET,
+                new HttpEntity<>(headers), byte[].class).getStatusCode());
+    }
+
     @Test
     void testAddDuplicateSwiftCode() throws JsonProcessingException {
         SwiftCodeController.SwiftCodeRequest request = new SwiftCodeController.SwiftCodeRequest();
@@ -146,25 +380,25 @@ public class SwiftCodeIntegrationTest {
 
     @Test
     void testDeleteExistingSwiftCode() throws JsonProcessingException {
-        SwiftCode swiftCode = new SwiftCode("DELETEME", "DeleteBank", "US",
+        SwiftCode swiftCode = new SwiftCode("DELEUS33", "DeleteBank", "US",
                 "United States", "123 Delete St");
 
         swiftCodeRepository.save(swiftCode);
 
-        ResponseEntity<String> deleteResponse = restTemplate.exchange(baseUrl + "/DELETEME", HttpMethod.DELETE,
+        ResponseEntity<String> deleteResponse = restTemplate.exchange(baseUrl + "/DELEUS33", HttpMethod.DELETE,
                 null, String.class);
         ObjectMapper objectMapper = new ObjectMapper();
         String actualMessage = objectMapper.readTree(deleteResponse.getBody()).get("message").asText();
         assertEquals("SWIFT code deleted successfully", actualMessage);
         assertEquals(HttpStatus.OK, deleteResponse.getStatusCode());
 
-        ResponseEntity<String> getResponse = restTemplate.getForEntity(baseUrl + "/DELETEME", String.class);
+        ResponseEntity<String> getResponse = restTemplate.getForEntity(baseUrl + "/DELEUS33", String.class);
         assertEquals(HttpStatus.NOT_FOUND, getResponse.getStatusCode());
     }
 
     @Test
     void testDeleteNonExistentSwiftCode() throws JsonProcessingException {
-        ResponseEntity<String> deleteResponse = restTemplate.exchange(baseUrl + "/DELETEME", HttpMethod.DELETE,
+        ResponseEntity<String> deleteResponse = restTemplate.exchange(baseUrl + "/DELEUS33", HttpMethod.DELETE,
                 null, String.class);
 
         ObjectMapper objectMapper = new ObjectMapper();
@@ -173,4 +407,66 @@ public class SwiftCodeIntegrationTest {
         assertEquals("SWIFT code not found", actualMessage);
 
     }
+
+    @Test
+    void testImportJobRunsInBackground() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            var sheet = workbook.createSheet("SWIFT Codes");
+            sheet.createRow(0).createCell(1).setCellValue("SWIFT Code");
+            String[] codes = {"IMPTPLPW001", "IMPTPLPWXXX"};
+            for (int i = 0; i < codes.length; i++) {
+                var row = sheet.createRow(i + 1);
+                row.createCell(0).setCellValue("PL");
+                row.createCell(1).setCellValue(codes[i]);
+                row.createCell(3).setCellValue("Import Bank");
+                row.createCell(4).setCellValue("1 Import St");
+                row.createCell(6).setCellValue("POLAND");
+            }
+            workbook.write(out);
+        }
+
+        MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
+        body.add("file", new ByteArrayResource(out.toByteArray()) {
+            @Override
+            public String getFilename() {
+                return "codes.xlsx";
+            }
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.MULTIPART_FORM_DATA);
+
+        ResponseEntity<String> postResponse = restTemplate.postForEntity(baseUrl + "/import?engine=copy",
+                new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.ACCEPTED, postResponse.getStatusCode());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        String jobId = objectMapper.readTree(postResponse.getBody()).get("id").asText();
+
+        JsonNode job = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            job = objectMapper.readTree(restTemplate.getForObject(baseUrl + "/import/" + jobId, String.class));
+            if (job.get("finished").asBoolean()) break;
+            Thread.sleep(100);
+        }
+
+        assertNotNull(job);
+        assertEquals("COMPLETED", job.get("status").asText());
+        assertEquals(2, job.get("rowsParsed").asLong());
+        assertEquals(2, job.get("rowsPersisted").asLong());
+        assertEquals("IMPTPLPWXXX", swiftCodeRepository.findById("IMPTPLPW001").orElseThrow().getHqSwiftCode());
+
+        //the same file again is answered with the earlier import, unless forced
+        ResponseEntity<String> repeatResponse = restTemplate.postForEntity(baseUrl + "/import",
+                new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.OK, repeatResponse.getStatusCode());
+        JsonNode repeat = objectMapper.readTree(repeatResponse.getBody());
+        assertEquals("SKIPPED", repeat.get("status").asText());
+        assertEquals(jobId, repeat.get("appliedImport").get("jobId").asText());
+        assertEquals(2, repeat.get("appliedImport").get("rowsPersisted").asLong());
+
+        ResponseEntity<String> forcedResponse = restTemplate.postForEntity(baseUrl + "/import?force=true",
+                new HttpEntity<>(body, headers), String.class);
+        assertEquals(HttpStatus.ACCEPTED, forcedResponse.getStatusCode());
+    }
 }
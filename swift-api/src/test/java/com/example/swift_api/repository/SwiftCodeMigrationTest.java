@@ -0,0 +1,47 @@
+package com.example.swift_api.repository;
+
+import com.example.swift_api.model.SwiftCode;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+//The other database tests let Hibernate create the schema; this one runs on the schema the migrations build, and
+//Hibernate only validates the entity against it, as in production
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {"spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"})
+class SwiftCodeMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Test
+    void testMigratedSchemaMatchesTheEntity(){
+        assertEquals("3", flyway.info().current().getVersion().getVersion());
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT index_name FROM information_schema.indexes WHERE table_name = 'SWIFT_CODES'", String.class);
+        assertEquals(List.of("IDX_SWIFT_CODES_COUNTRY_CODE", "IDX_SWIFT_CODES_HQ_SWIFT_CODE"),
+                indexes.stream().filter(name -> name.startsWith("IDX_")).sorted().toList());
+
+        swiftCodeRepository.save(new SwiftCode("BANKPLPWXXX", "Bank", "PL", "Poland", "1 Street"));
+        swiftCodeRepository.save(new SwiftCode("BANKPLPW001", "Bank", "PL", "Poland", "2 Street"));
+        assertEquals(List.of("BANKPLPWXXX"), swiftCodeRepository.findCountryPage("pl", "BANKPLPW001", Limit.of(5))
+                .stream().map(SwiftCode::getSwiftCode).toList());
+        assertFalse(swiftCodeRepository.findHeadquarterCodes(List.of("BANKPLPWXXX")).isEmpty());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.swift_api.repository;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Checks that the lookup queries are planned on the indexes created by the migrations. The statements explained are
+//the ones Hibernate generates for the repository methods, captured by a StatementInspector, so a change in the
+//JPQL or in how Hibernate renders it (e.g. upper() or substring()) that no longer matches an index fails here.
+//Everything happens in a schema of its own, swift_plan_test, migrated at the start and dropped at the end; the
+//application's database swift_db is refused so its data is never touched.
+//mvn test -Dtest=SwiftCodeQueryPlanTest -Dtest.postgres.url=jdbc:postgresql://localhost:5432/postgres
+@SpringBootTest
+@EnabledIfSystemProperty(named = "test.postgres.url", matches = ".+")
+class SwiftCodeQueryPlanTest {
+    private static final int BANKS = 4000;
+    private static final int BRANCHES_PER_BANK = 4;
+    private static final int COUNTRIES = 100;
+    private static final String SCHEMA = "swift_plan_test";
+    private static final String URL = System.getProperty("test.postgres.url");
+    private static final String USERNAME = System.getProperty("test.postgres.username", "postgres");
+    private static final String PASSWORD = System.getProperty("test.postgres.password", "");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Autowired
+    private Flyway flyway;
+
+    //Every statement Hibernate prepares, in order
+    static class CapturedSql implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @TestConfiguration
+    static class Capture {
+        @Bean
+        HibernatePropertiesCustomizer captureSql() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new CapturedSql());
+        }
+    }
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        String database = URL.replaceFirst("^jdbc:postgresql://[^/]*/", "").replaceFirst("[?;].*$", "");
+        if (database.equalsIgnoreCase("swift_db")) {
+            throw new IllegalStateException("Refusing to run the query plan test against the application's database "
+                    + database + ", point test.postgres.url at another one");
+        }
+        registry.add("spring.datasource.url", () -> URL + (URL.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+        registry.add("spring.datasource.username", () -> USERNAME);
+        registry.add("spring.datasource.password", () -> PASSWORD);
+        //the schema has to come from the migrations, not from Hibernate; Flyway creates it
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.flyway.schemas", () -> SCHEMA);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "validate");
+    }
+
+    @AfterAll
+    static void dropSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, USERNAME, PASSWORD)) {
+            connection.createStatement().execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+        }
+    }
+
+    @BeforeEach
+    void fill() {
+        jdbcTemplate.execute("TRUNCATE TABLE swift_codes");
+        List<Object[]> rows = new ArrayList<>();
+        for (int bank = 0; bank < BANKS; bank++) {
+            String prefix = String.format("B%05d%s", bank, country(bank));
+            String hq = prefix + "XXX";
+            rows.add(new Object[]{hq, "Bank " + bank, country(bank), "Country", "Address", true, null});
+            for (int branch = 0; branch < BRANCHES_PER_BANK; branch++) {
+                rows.add(new Object[]{prefix + String.format("%03d", branch), "Bank " + bank, country(bank),
+                        "Country", "Address", false, hq});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO swift_codes (swift_code, bank_name, countryiso2, country_name, " +
+                "address, is_headquarter, hq_swift_code) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE swift_codes");
+    }
+
+    @Test
+    void schemaComesFromTheMigrations() {
+        assertEquals("3", flyway.info().current().getVersion().getVersion());
+        String countryIndex = jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE schemaname = ? AND indexname = 'idx_swift_codes_country_code'",
+                String.class, SCHEMA);
+        assertTrue(countryIndex.contains("upper((countryiso2)::text), swift_code"), countryIndex);
+    }
+
+    @Test
+    void countryLookupUsesCountryIndex() {
+        String sql = capture(() -> swiftCodeRepository.findByCountryISO2IgnoreCase("ab"));
+        assertUsesIndex("idx_swift_codes_country_code", sql, "ab");
+    }
+
+    @Test
+    void countryPageIsRangeScanOnCountryIndex() {
+        String sql = capture(() -> swiftCodeRepository.findCountryPage("ab", "B00101AB001", Limit.of(11)));
+        String plan = explain(sql, "ab", "B00101AB001", 11);
+        assertTrue(plan.contains("Index Scan using idx_swift_codes_country_code"), plan);
+        assertFalse(plan.contains("Sort"), "Pages should come in index order, got:\n" + plan);
+    }
+
+    @Test
+    void branchListUsesHqIndex() {
+        String sql = capture(() -> swiftCodeRepository.findByHqSwiftCode("B00042BQXXX"));
+        assertUsesIndex("idx_swift_codes_hq_swift_code", sql, "B00042BQXXX");
+    }
+
+    @Test
+    void detailsWithBranchesUsesPrimaryKeyAndHqIndex() {
+        String sql = capture(() -> swiftCodeRepository.findWithBranches("B00042BQXXX"));
+        String plan = explain(sql, "B00042BQXXX", "B00042BQXXX");
+        assertTrue(plan.contains("swift_codes_pkey") && plan.contains("idx_swift_codes_hq_swift_code"),
+                "Expected one lookup on each index, got:\n" + plan);
+    }
+
+    @Test
+    @Transactional
+    void orphanLinkingUsesBankPrefixIndex() {
+        String sql = capture(() -> swiftCodeRepository.linkOrphanBranches("B00042BQXXX", "B00042BQ"));
+        assertUsesIndex("idx_swift_codes_bank_prefix", sql, "B00042BQXXX", "B00042BQ");
+    }
+
+    //The one statement Hibernate prepared for the repository call
+    private String capture(Runnable repositoryCall) {
+        CapturedSql.STATEMENTS.clear();
+        repositoryCall.run();
+        assertEquals(1, CapturedSql.STATEMENTS.size(), "Expected one statement, got " + CapturedSql.STATEMENTS);
+        return CapturedSql.STATEMENTS.get(0);
+    }
+
+    private void assertUsesIndex(String index, String sql, Object... parameters) {
+        String plan = explain(sql, parameters);
+        assertTrue(plan.contains(index), "Expected a scan on " + index + ", got:\n" + plan);
+    }
+
+    //The captured SQL keeps its ? placeholders, bound to the same values the repository call used
+    private String explain(String sql, Object... parameters) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, parameters));
+    }
+
+    //two letter codes AA..DV, so each country holds 1% of the rows
+    private static String country(int bank) {
+        int country = bank % COUNTRIES;
+        return "" + (char) ('A' + country / 26) + (char) ('A' + country % 26);
+    }
+}
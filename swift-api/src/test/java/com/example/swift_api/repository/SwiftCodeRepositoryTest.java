@@ -2,11 +2,13 @@ package com.example.swift_api.repository;
 
 
 import com.example.swift_api.model.SwiftCode;
+import jakarta.persistence.EntityManager;
 import org.apache.coyote.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -23,6 +25,9 @@ class SwiftCodeRepositoryTest {
     @Autowired
     private SwiftCodeRepository swiftCodeRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void testSaveAndFindById(){
         SwiftCode swiftCode = new SwiftCode("BANK123", "Test Bank", "US",
@@ -51,6 +56,21 @@ class SwiftCodeRepositoryTest {
         assertEquals(2, found.size());
     }
 
+    @Test
+    void testFindCountryPage(){
+        swiftCodeRepository.saveAll(List.of(
+                new SwiftCode("US003", "Bank USA 3", "US", "United States", "300 Main St"),
+                new SwiftCode("US001", "Bank USA 1", "US", "United States", "100 Main St"),
+                new SwiftCode("US002", "Bank USA 2", "US", "United States", "200 Main St"),
+                new SwiftCode("GB001", "Bank UK", "GB", "United Kingdom", "1 London St")));
+
+        List<SwiftCode> firstPage = swiftCodeRepository.findCountryPage("us", "", Limit.of(2));
+        List<SwiftCode> nextPage = swiftCodeRepository.findCountryPage("us", "US002", Limit.of(2));
+
+        assertEquals(List.of("US001", "US002"), firstPage.stream().map(SwiftCode::getSwiftCode).toList());
+        assertEquals(List.of("US003"), nextPage.stream().map(SwiftCode::getSwiftCode).toList());
+    }
+
     @Test
     void testFindByHqSwiftCode(){
         SwiftCode hqBank = new SwiftCode("HQ123", "Headquarters Bank", "US",
@@ -69,11 +89,62 @@ class SwiftCodeRepositoryTest {
         assertEquals(2, found.size());
     }
 
+    @Test
+    void testFindWithBranches(){
+        SwiftCode hqBank = new SwiftCode("BANKPLPWXXX", "HQ Bank", "PL", "Poland", "HQ St");
+        SwiftCode branch = new SwiftCode("BANKPLPW001", "Branch", "PL", "Poland", "Branch St");
+        branch.setHqSwiftCode("BANKPLPWXXX");
+        SwiftCode otherHq = new SwiftCode("OTHRPLPWXXX", "Other", "PL", "Poland", "Other St");
+        swiftCodeRepository.saveAll(List.of(hqBank, branch, otherHq));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<SwiftCode> found = swiftCodeRepository.findWithBranches("BANKPLPWXXX");
+
+        assertEquals(List.of("BANKPLPW001", "BANKPLPWXXX"), found.stream().map(SwiftCode::getSwiftCode).sorted().toList());
+        SwiftCode readBranch = found.stream().filter(code -> !code.isHeadquarter()).findFirst().orElseThrow();
+        assertEquals("BANKPLPWXXX", readBranch.getHqSwiftCode());
+        assertEquals("Branch St", readBranch.getAddress());
+        //read rows are copies the persistence context does not track
+        assertTrue(found.stream().noneMatch(entityManager::contains));
+        assertEquals(List.of("BANKPLPW001"), swiftCodeRepository.findWithBranches("BANKPLPW001").stream()
+                .map(SwiftCode::getSwiftCode).toList());
+        assertEquals(List.of("BANKPLPW001", "BANKPLPWXXX", "OTHRPLPWXXX"),
+                swiftCodeRepository.findAllWithBranches(List.of("BANKPLPWXXX", "OTHRPLPWXXX")).stream()
+                        .map(SwiftCode::getSwiftCode).sorted().toList());
+    }
+
     @Test
     void testFindById_NotFound(){
         Optional<SwiftCode> result = swiftCodeRepository.findById("UNKNOWN");
         assertTrue(result.isEmpty());
     }
-}
 
+    @Test
+    void testFindHeadquarterCodes(){
+        SwiftCode hqBank = new SwiftCode("BANKPLPWXXX", "HQ Bank", "PL", "Poland", "HQ St");
+        SwiftCode branch = new SwiftCode("BANKPLPW001", "Branch", "PL", "Poland", "Branch St");
 
+        swiftCodeRepository.saveAll(List.of(hqBank, branch));
+
+        List<String> found = swiftCodeRepository.findHeadquarterCodes(
+                List.of("BANKPLPWXXX", "BANKPLPW001", "OTHRPLPWXXX"));
+        assertEquals(List.of("BANKPLPWXXX"), found);
+    }
+
+    @Test
+    void testLinkOrphanBranches(){
+        SwiftCode orphan = new SwiftCode("BANKPLPW001", "Branch 1", "PL", "Poland", "Branch 1 St");
+        SwiftCode linked = new SwiftCode("BANKPLPW002", "Branch 2", "PL", "Poland", "Branch 2 St");
+        linked.setHqSwiftCode("OLDHQCODE");
+        SwiftCode otherBank = new SwiftCode("OTHRPLPW001", "Other", "PL", "Poland", "Other St");
+
+        swiftCodeRepository.saveAll(List.of(orphan, linked, otherBank));
+
+        int updated = swiftCodeRepository.linkOrphanBranches("BANKPLPWXXX", "BANKPLPW");
+
+        assertEquals(1, updated);
+        assertEquals(List.of("BANKPLPW001"), swiftCodeRepository.findByHqSwiftCode("BANKPLPWXXX").stream()
+                .map(SwiftCode::getSwiftCode).toList());
+    }
+}
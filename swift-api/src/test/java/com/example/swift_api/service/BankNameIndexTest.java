@@ -0,0 +1,58 @@
+package com.example.swift_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BankNameIndexTest {
+
+    @Test
+    void testSearch_ToleratesTyposAndWordOrder() {
+        BankNameIndex index = new BankNameIndex();
+        index.add("DEUTDEFFXXX", "DEUTSCHE BANK AG");
+        index.add("DEUTDEFF500", "DEUTSCHE BANK AG");
+        index.add("BNPAFRPPXXX", "BNP PARIBAS");
+        index.add("COBADEFFXXX", "COMMERZBANK AG");
+
+        List<BankMatch> typo = index.search("deutshe bank", 5);
+        assertEquals("DEUTSCHE BANK AG", typo.get(0).getBankName());
+        assertEquals(List.of("DEUTDEFF500", "DEUTDEFFXXX"), typo.get(0).getSwiftCodes());
+
+        List<BankMatch> reordered = index.search("Paribas BNP", 5);
+        assertEquals("BNP PARIBAS", reordered.get(0).getBankName());
+        assertEquals(1.0, reordered.get(0).getScore());
+
+        assertTrue(index.search("citibank", 5).stream().noneMatch(match -> match.getBankName().equals("BNP PARIBAS")));
+        assertTrue(index.search("   ", 5).isEmpty());
+    }
+
+    @Test
+    void testSearch_RanksByCoverageThenSimilarityAndLimits() {
+        BankNameIndex index = new BankNameIndex();
+        index.add("AAAAPLPWXXX", "Bank Polski Spolka Akcyjna Oddzial");
+        index.add("BBBBPLPWXXX", "Bank Polski");
+        index.add("CCCCPLPWXXX", "Polski Bank Inwestycyjny");
+
+        List<BankMatch> matches = index.search("bank polski", 2);
+
+        assertEquals(2, matches.size());
+        assertEquals("Bank Polski", matches.get(0).getBankName());
+        assertTrue(matches.get(0).getSimilarity() > matches.get(1).getSimilarity());
+    }
+
+    @Test
+    void testAddAndRemove_KeepEntriesCurrent() {
+        BankNameIndex index = new BankNameIndex();
+        index.add("BANKPLPWXXX", "Old Name Bank");
+        index.add("BANKPLPW001", "Old Name Bank");
+
+        //renamed headquarters, deleted branch
+        index.add("BANKPLPWXXX", "New Name Bank");
+        index.remove("BANKPLPW001");
+
+        assertTrue(index.search("old name bank", 5).stream().noneMatch(match -> match.getBankName().equals("Old Name Bank")));
+        assertEquals(List.of("BANKPLPWXXX"), index.search("new name bank", 5).get(0).getSwiftCodes());
+    }
+}
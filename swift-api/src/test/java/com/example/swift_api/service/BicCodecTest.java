@@ -0,0 +1,54 @@
+package com.example.swift_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BicCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        for (String bic : new String[]{"DEUTDEFF", "DEUTDEFFXXX", "DEUTDEFF500", "ZZZZZZZZZZZ", "00000000000",
+                "0", "Z", "B000DEFFXXX"}) {
+            long key = BicCodec.encode(bic);
+            assertTrue(key > 0, bic);
+            assertEquals(bic, BicCodec.decode(key));
+        }
+    }
+
+    @Test
+    void testShortAndLongFormsAreDistinct() {
+        assertNotEquals(BicCodec.encode("DEUTDEFF"), BicCodec.encode("DEUTDEFFXXX"));
+        assertNotEquals(BicCodec.encode("DEUTDEFF"), BicCodec.encode("DEUTDEFF000"));
+    }
+
+    @Test
+    void testKeysSortLikeCodes() {
+        String[] codes = {"ZZZZZZZZZZZ", "DEUTDEFF500", "DEUTDEFF", "DEUTDEFFXXX", "B000DEFFXXX", "9999PLPW", "AAAAPLPW"};
+        long[] keys = Arrays.stream(codes).mapToLong(BicCodec::encode).toArray();
+        Arrays.sort(codes);
+        Arrays.sort(keys);
+        for (int i = 0; i < codes.length; i++) {
+            assertEquals(codes[i], BicCodec.decode(keys[i]));
+        }
+    }
+
+    @Test
+    void testUnencodableCodes() {
+        for (String bic : new String[]{"", "DEUTDEFFXXXX", "deutdeff", "DEUT-EFF", "DEUTDEFF 00", "DEUTÄEFF"}) {
+            assertEquals(BicCodec.INVALID, BicCodec.encode(bic), bic);
+        }
+        assertEquals(BicCodec.INVALID, BicCodec.encode(null));
+    }
+
+    @Test
+    void testDecodeRejectsOtherLongs() {
+        assertThrows(IllegalArgumentException.class, () -> BicCodec.decode(0));
+        assertThrows(IllegalArgumentException.class, () -> BicCodec.decode(BicCodec.INVALID));
+        assertThrows(IllegalArgumentException.class, () -> BicCodec.decode(Long.MAX_VALUE));
+        //"A", a missing character, then "A"
+        assertThrows(IllegalArgumentException.class, () -> BicCodec.decode(11L * 37 * 37 + 11));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.swift_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BicValidatorTest {
+
+    @Test
+    void testWellFormedCodes() {
+        for (String bic : new String[]{"DEUTDEFF", "DEUTDEFFXXX", "DEUTDEFF500", "BNPAFRPP", "BANKGB2L001",
+                "B000DEFFXXX", "CITIUS33", "RZBAXKPR"}) {
+            assertTrue(BicValidator.isValid(bic), bic);
+        }
+    }
+
+    @Test
+    void testMalformedCodes() {
+        for (String bic : new String[]{"", "DEUTDEF", "DEUTDEFF5", "DEUTDEFF50", "DEUTDEFFXXXX", "deutdeff",
+                "DEUTDEFf", "DEUT-EFF", "DEUTDEFF 00", "DEUTÄEFF", "DEUT1EFF", "DEUTQQFF", "DEUTAAFF", "DEUTDEFFX00",
+                "DEUTDEFFXX1"}) {
+            assertFalse(BicValidator.isValid(bic), bic);
+        }
+        assertFalse(BicValidator.isValid(null));
+    }
+
+    @Test
+    void testCountries() {
+        assertTrue(BicValidator.isCountry("PL"));
+        assertTrue(BicValidator.isCountry("ZW"));
+        assertTrue(BicValidator.isCountry("AD"));
+        assertFalse(BicValidator.isCountry("AA"));
+        assertFalse(BicValidator.isCountry("UK"));
+        assertFalse(BicValidator.isCountry("pl"));
+        assertFalse(BicValidator.isCountry("P"));
+        assertFalse(BicValidator.isCountry(null));
+    }
+}
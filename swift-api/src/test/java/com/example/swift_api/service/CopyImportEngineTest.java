@@ -0,0 +1,40 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CopyImportEngineTest {
+
+    @Test
+    void testAppendRow_EscapesCopyTextFormat(){
+        SwiftCode swiftCode = new SwiftCode("BANKPLPW001", "Bank\tName", "PL", "Poland", "Line 1\nC:\\dir");
+        swiftCode.setHqSwiftCode(null);
+
+        StringBuilder out = new StringBuilder();
+        CopyImportEngine.appendRow(out, swiftCode, 7);
+
+        assertEquals("BANKPLPW001\tBank\\tName\tPL\tPoland\tLine 1\\nC:\\\\dir\tf\t\\N\t7\n", out.toString());
+    }
+
+    @Test
+    void testIsAvailable_FalseForNonPostgresDatabase() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isWrapperFor(PGConnection.class)).thenReturn(false);
+
+        CopyImportEngine engine = new CopyImportEngine(dataSource);
+
+        assertFalse(engine.isAvailable());
+        assertFalse(engine.isAvailable());
+        verify(dataSource, times(1)).getConnection();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.swift_api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DelimitedFileReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_Csv() throws IOException {
+        List<String[]> rows = read(new DelimitedFileReader(7, ','),
+                "COUNTRY ISO2 CODE,SWIFT CODE,CODE TYPE,NAME,ADDRESS,TOWN NAME,COUNTRY NAME\n" +
+                "PL, BANKPLPWXXX ,BIC11,Bank Polski,\"ul. Prosta 1, Warszawa\",WARSZAWA,POLAND\r\n" +
+                "\n" +
+                "PL,BANKPLPW001,BIC11,\"Bank \"\"Polski\"\"\",,WARSZAWA,POLAND");
+
+        assertEquals(3, rows.size());
+        assertEquals("SWIFT CODE", rows.get(0)[1]);
+        assertArrayEquals(new String[]{"PL", "BANKPLPWXXX", "BIC11", "Bank Polski", "ul. Prosta 1, Warszawa",
+                "WARSZAWA", "POLAND"}, rows.get(1));
+        assertEquals("Bank \"Polski\"", rows.get(2)[3]);
+        assertNull(rows.get(2)[4]);
+    }
+
+    @Test
+    void testRead_TsvWithByteOrderMarkAndUtf8() throws IOException {
+        List<String[]> rows = read(new DelimitedFileReader(7, '\t'),
+                "\uFEFFCOUNTRY ISO2 CODE\tSWIFT CODE\n" +
+                "MC\tBANKMCMCXXX\t\tBanque Monégasque\t\t\tMONACO\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("COUNTRY ISO2 CODE", rows.get(0)[0]);
+        assertEquals("Banque Monégasque", rows.get(1)[3]);
+        assertNull(rows.get(1)[2]);
+        assertEquals("MONACO", rows.get(1)[6]);
+    }
+
+    @Test
+    void testRead_RecordsSpanningMappingWindows() throws IOException {
+        StringBuilder content = new StringBuilder("ISO2,SWIFT CODE\n");
+        for (int i = 0; i < 200; i++) {
+            content.append("DE,").append(String.format("B%06dDEFF", i)).append(",,\"Bank\nNumber ").append(i)
+                    .append("\"\r\n");
+        }
+
+        List<String[]> rows = read(new DelimitedFileReader(7, ',', 64), content.toString());
+
+        assertEquals(201, rows.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(String.format("B%06dDEFF", i), rows.get(i + 1)[1]);
+            assertEquals("Bank\nNumber " + i, rows.get(i + 1)[3]);
+        }
+    }
+
+    @Test
+    void testRead_RecordLongerThanWindow() throws IOException {
+        DelimitedFileReader reader = new DelimitedFileReader(7, ',', 16);
+
+        IOException exception = assertThrows(IOException.class, () ->
+                read(reader, "PL,BANKPLPWXXX,BIC11,A very long bank name\nPL"));
+
+        assertTrue(exception.getMessage().contains("longer than 16 bytes"));
+    }
+
+    private List<String[]> read(DelimitedFileReader reader, String content) throws IOException {
+        Path file = tempDir.resolve("codes.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        List<String[]> rows = new ArrayList<>();
+        reader.read(file, (rowNum, cells) -> {
+            assertEquals(rows.size(), rowNum);
+            rows.add(Arrays.copyOf(cells, cells.length));
+        });
+        return rows;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(DeltaImportSupport.class)
+@TestPropertySource(locations = "classpath:application-test.properties")
+class DeltaImportSupportTest {
+
+    @Autowired
+    private DeltaImportSupport deltaSupport;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Test
+    void testLoadContentHashes_MatchesEntityHashes(){
+        SwiftCode hq = new SwiftCode("BANKPLPWXXX", "Bank", "PL", "POLAND", "1 Main St");
+        SwiftCode branch = new SwiftCode("BANKPLPW001", "Bank", "PL", "POLAND", "2 Side St");
+        swiftCodeRepository.saveAllAndFlush(List.of(hq, branch));
+
+        Map<String, Long> hashes = deltaSupport.loadContentHashes();
+
+        assertEquals(2, hashes.size());
+        assertEquals(SwiftCodeHasher.hash(hq), hashes.get("BANKPLPWXXX"));
+        assertEquals(SwiftCodeHasher.hash(branch), hashes.get("BANKPLPW001"));
+        assertNotEquals(hashes.get("BANKPLPWXXX"), hashes.get("BANKPLPW001"));
+    }
+
+    @Test
+    void testDeleteCodes_DeletesInChunks(){
+        swiftCodeRepository.saveAllAndFlush(List.of(
+                new SwiftCode("DELAPLPWXXX", "Bank", "PL", "POLAND", "St"),
+                new SwiftCode("DELBPLPWXXX", "Bank", "PL", "POLAND", "St"),
+                new SwiftCode("KEEPPLPWXXX", "Bank", "PL", "POLAND", "St")));
+
+        deltaSupport.deleteCodes(List.of("DELAPLPWXXX", "DELBPLPWXXX"), 1);
+
+        assertEquals(List.of("KEEPPLPWXXX"), swiftCodeRepository.findAll().stream().map(SwiftCode::getSwiftCode).toList());
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.swift_api.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private SwiftCodeImportService importService;
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "codes.xlsx",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", new byte[]{1, 2, 3});
+
+    private final AppliedImportRegistry registry = new AppliedImportRegistry(10);
+
+    @Test
+    void testSubmit_RunsImportAndCompletes() throws Exception {
+        ImportJobService jobService = new ImportJobService(importService, new SyncTaskExecutor(), registry, 10);
+
+        ImportJob job = jobService.submit(file, new ImportOptions());
+
+        assertEquals(ImportJobStatus.COMPLETED, job.getStatus());
+        assertNotNull(job.getStartedAt());
+        assertNotNull(job.getFinishedAt());
+        assertSame(job, jobService.getJob(job.getId()).orElseThrow());
+        verify(importService).importSwiftCodes(any(Path.class), any(ImportOptions.class), any(ImportProgress.class));
+    }
+
+    @Test
+    void testSubmit_RecordsFailure() throws Exception {
+        doThrow(new RuntimeException("broken sheet"))
+                .when(importService).importSwiftCodes(any(Path.class), any(ImportOptions.class), any(ImportProgress.class));
+        ImportJobService jobService = new ImportJobService(importService, new SyncTaskExecutor(), registry, 10);
+
+        ImportJob job = jobService.submit(file, new ImportOptions());
+
+        assertEquals(ImportJobStatus.FAILED, job.getStatus());
+        assertEquals("broken sheet", job.getError());
+    }
+
+    @Test
+    void testSubmit_RejectedWhenExecutorIsFull() {
+        TaskExecutor fullExecutor = task -> {
+            throw new TaskRejectedException("queue full");
+        };
+        ImportJobService jobService = new ImportJobService(importService, fullExecutor, registry, 10);
+
+        assertThrows(TaskRejectedException.class, () -> jobService.submit(file, new ImportOptions()));
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void testSubmit_EvictsOldestFinishedJobs() {
+        ImportJobService jobService = new ImportJobService(importService, new SyncTaskExecutor(), registry, 1);
+
+        ImportJob first = jobService.submit(file, new ImportOptions());
+        ImportJob second = jobService.submit(file, new ImportOptions());
+
+        assertTrue(jobService.getJob(first.getId()).isEmpty());
+        assertTrue(jobService.getJob(second.getId()).isPresent());
+    }
+
+    @Test
+    void testSubmit_SkipsFileThatWasAlreadyApplied() throws Exception {
+        publishChangeOnImport();
+        ImportJobService jobService = new ImportJobService(importService, new SyncTaskExecutor(), registry, 10);
+
+        ImportJob first = jobService.submit(file, new ImportOptions());
+        ImportJob second = jobService.submit(file, new ImportOptions());
+
+        assertEquals(ImportJobStatus.COMPLETED, first.getStatus());
+        assertEquals(ImportJobStatus.SKIPPED, second.getStatus());
+        assertEquals(first.getId(), second.getAppliedImport().getJobId());
+        assertEquals(first.getDigest(), second.getDigest());
+        assertEquals(64, second.getDigest().length());
+        verify(importService, times(1))
+                .importSwiftCodes(any(Path.class), any(ImportOptions.class), any(ImportProgress.class));
+    }
+
+    @Test
+    void testSubmit_ForceOrLaterChangesReapplyTheFile() throws Exception {
+        publishChangeOnImport();
+        ImportJobService jobService = new ImportJobService(importService, new SyncTaskExecutor(), registry, 10);
+        ImportOptions force = new ImportOptions();
+        force.setForce(true);
+
+        jobService.submit(file, new ImportOptions());
+        ImportJob forced = jobService.submit(file, force);
+        registry.onSwiftCodesChanged(SwiftCodesChangedEvent.of("BANKPLPWXXX"));
+        ImportJob afterChange = jobService.submit(file, new ImportOptions());
+        ImportJob otherFile = jobService.submit(new MockMultipartFile("file", "other.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", new byte[]{4}), new ImportOptions());
+
+        assertEquals(ImportJobStatus.COMPLETED, forced.getStatus());
+        assertEquals(ImportJobStatus.COMPLETED, afterChange.getStatus());
+        assertEquals(ImportJobStatus.COMPLETED, otherFile.getStatus());
+        assertEquals(4, registry.getEntries().size());
+    }
+
+    @Test
+    void testSubmit_SameFileWithOtherOptionsIsImported() throws Exception {
+        publishChangeOnImport();
+        ImportJobService jobService = new ImportJobService(importService, new SyncTaskExecutor(), registry, 10);
+        ImportOptions deleteMissing = new ImportOptions();
+        deleteMissing.setMode(ImportMode.DELTA);
+        deleteMissing.setDeleteMissing(true);
+        ImportOptions csv = new ImportOptions();
+        csv.setFormat(ImportFormat.CSV);
+
+        ImportJob full = jobService.submit(file, new ImportOptions());
+        ImportJob delta = jobService.submit(file, deleteMissing);
+        ImportJob deltaAgain = jobService.submit(file, deleteMissing);
+        ImportJob asCsv = jobService.submit(file, csv);
+
+        assertEquals(ImportJobStatus.COMPLETED, full.getStatus());
+        assertEquals(ImportJobStatus.COMPLETED, delta.getStatus());
+        assertEquals(ImportJobStatus.SKIPPED, deltaAgain.getStatus());
+        assertEquals(delta.getId(), deltaAgain.getAppliedImport().getJobId());
+        assertEquals(ImportJobStatus.COMPLETED, asCsv.getStatus());
+        verify(importService, times(3))
+                .importSwiftCodes(any(Path.class), any(ImportOptions.class), any(ImportProgress.class));
+    }
+
+    @Test
+    void testSubmit_ReturnsRunningJobForSameFile() {
+        List<Runnable> queued = new ArrayList<>();
+        ImportJobService jobService = new ImportJobService(importService, queued::add, registry, 10);
+
+        ImportJob first = jobService.submit(file, new ImportOptions());
+        ImportJob second = jobService.submit(file, new ImportOptions());
+
+        assertSame(first, second);
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void testSubmit_RunningJobWithOtherOptionsIsNoDuplicate() {
+        List<Runnable> queued = new ArrayList<>();
+        ImportJobService jobService = new ImportJobService(importService, queued::add, registry, 10);
+        ImportOptions deleteMissing = new ImportOptions();
+        deleteMissing.setMode(ImportMode.DELTA);
+        deleteMissing.setDeleteMissing(true);
+
+        ImportJob first = jobService.submit(file, new ImportOptions());
+        ImportJob second = jobService.submit(file, deleteMissing);
+
+        assertNotSame(first, second);
+        assertEquals(2, queued.size());
+    }
+
+    //the real import service publishes a change event once it has written the rows
+    private void publishChangeOnImport() throws Exception {
+        doAnswer(invocation -> {
+            registry.onSwiftCodesChanged(SwiftCodesChangedEvent.bulk());
+            return null;
+        }).when(importService).importSwiftCodes(any(Path.class), any(ImportOptions.class), any(ImportProgress.class));
+    }
+}
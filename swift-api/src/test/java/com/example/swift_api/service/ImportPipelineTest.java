@@ -0,0 +1,165 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImportPipelineTest {
+
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    private final ImportPipeline pipeline = new ImportPipeline(3, 2, 2, EXECUTOR);
+
+    @Test
+    void testRun_WritesEveryRowAndReportsStages() throws IOException {
+        Set<String> written = ConcurrentHashMap.newKeySet();
+        ImportProgress progress = new ImportProgress();
+
+        List<StageStats> stages = pipeline.run(rows(5000), new RowProcessor(progress, null),
+                engine(chunk -> chunk.forEach(code -> written.add(code.getSwiftCode()))), 250, progress);
+
+        assertEquals(5000, written.size());
+        assertEquals(5000, progress.getRowsPersisted());
+        assertEquals(List.of("parse", "validate", "persist"), stages.stream().map(StageStats::getName).toList());
+        assertEquals(5001, stages.get(0).getRows());
+        assertEquals(5001, stages.get(1).getRows());
+        assertEquals(5000, stages.get(2).getRows());
+        assertEquals(2, stages.get(2).getThreads());
+    }
+
+    @Test
+    void testRun_RepeatedCodeStaysWithOneWriterAndLastOccurrenceWins() throws IOException {
+        //300 codes, each on 10 rows spread over the whole file, so every chunk repeats codes of earlier chunks
+        RowSource source = handler -> {
+            String[] cells = new String[7];
+            handler.handleRow(0, cells);
+            for (int i = 1; i <= 3000; i++) {
+                cells[0] = "PL";
+                cells[1] = String.format("B%03dPLPW", i % 300);
+                cells[3] = "Bank row " + i;
+                handler.handleRow(i, cells);
+            }
+        };
+        Map<String, Thread> writerByCode = new ConcurrentHashMap<>();
+        Map<String, String> bankNameByCode = new ConcurrentHashMap<>();
+        Set<String> writtenByTwoWriters = ConcurrentHashMap.newKeySet();
+        ImportProgress progress = new ImportProgress();
+
+        pipeline.run(source, new RowProcessor(progress, null), engine(chunk -> chunk.forEach(code -> {
+            Thread writer = writerByCode.putIfAbsent(code.getSwiftCode(), Thread.currentThread());
+            if (writer != null && writer != Thread.currentThread()) {
+                writtenByTwoWriters.add(code.getSwiftCode());
+            }
+            bankNameByCode.put(code.getSwiftCode(), code.getBankName());
+        })), 50, progress);
+
+        assertEquals(Set.of(), writtenByTwoWriters);
+        assertEquals(300, bankNameByCode.size());
+        for (int code = 0; code < 300; code++) {
+            int lastRow = code == 0 ? 3000 : 2700 + code;
+            assertEquals("Bank row " + lastRow, bankNameByCode.get(String.format("B%03dPLPW", code)));
+        }
+    }
+
+    @Test
+    void testRun_WriterFailureStopsThePipeline() {
+        ImportProgress progress = new ImportProgress();
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                pipeline.run(rows(50000), new RowProcessor(progress, null), engine(chunk -> {
+                    throw new RuntimeException("database is down");
+                }), 100, progress));
+
+        assertEquals("database is down", exception.getMessage());
+        assertTrue(progress.getRowsParsed() < 50000);
+    }
+
+    @Test
+    void testRun_ParserFailureIsRethrown() {
+        RowSource broken = handler -> {
+            handler.handleRow(0, new String[7]);
+            throw new IOException("corrupt sheet");
+        };
+        ImportProgress progress = new ImportProgress();
+
+        IOException exception = assertThrows(IOException.class, () ->
+                pipeline.run(broken, new RowProcessor(progress, null), engine(chunk -> {}), 100, progress));
+
+        assertEquals("corrupt sheet", exception.getMessage());
+    }
+
+    @Test
+    void testRun_FailedRunLeavesTheSharedThreadsUsable() throws IOException {
+        //exactly one run's worth of threads, so the second run gets the threads the failed one interrupted
+        ExecutorService sixThreads = Executors.newFixedThreadPool(6);
+        try {
+            ImportPipeline shared = new ImportPipeline(3, 2, 2, sixThreads);
+            ImportProgress failed = new ImportProgress();
+            assertThrows(RuntimeException.class, () ->
+                    shared.run(rows(50000), new RowProcessor(failed, null), engine(chunk -> {
+                        throw new RuntimeException("database is down");
+                    }), 100, failed));
+
+            ImportProgress progress = new ImportProgress();
+            shared.run(rows(5000), new RowProcessor(progress, null), engine(chunk -> {}), 100, progress);
+
+            assertEquals(5000, progress.getRowsPersisted());
+        } finally {
+            sixThreads.shutdownNow();
+        }
+    }
+
+    private static RowSource rows(int count) {
+        return handler -> {
+            String[] cells = new String[7];
+            handler.handleRow(0, cells);
+            for (int i = 1; i <= count; i++) {
+                cells[0] = "PL";
+                cells[1] = String.format("B%03dPL%02d", i / 100, i % 100);
+                handler.handleRow(i, cells);
+            }
+        };
+    }
+
+    private static ImportEngine engine(Consumer<List<SwiftCode>> consumer) {
+        return new ImportEngine() {
+            @Override
+            public ImportEngineType getType() {
+                return ImportEngineType.JPA;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+
+            @Override
+            public ImportSink openSink() {
+                return new ImportSink() {
+                    @Override
+                    public void write(List<SwiftCode> chunk) {
+                        consumer.accept(chunk);
+                    }
+
+                    @Override
+                    public void complete() {
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.swift_api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseFormatTest {
+
+    @Test
+    void testNegotiate() {
+        assertEquals(ResponseFormat.JSON, ResponseFormat.negotiate(null));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.negotiate("*/*"));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.negotiate("text/html"));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.negotiate("not a media type;;"));
+        assertEquals(ResponseFormat.CBOR, ResponseFormat.negotiate("application/cbor"));
+        assertEquals(ResponseFormat.CBOR, ResponseFormat.negotiate("text/html, application/cbor, */*;q=0.1"));
+        assertEquals(ResponseFormat.SMILE, ResponseFormat.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(ResponseFormat.JSON, ResponseFormat.negotiate("application/cbor;q=0.2, application/json"));
+    }
+
+    @Test
+    void testEtagVariants() {
+        assertEquals("\"a-1\"", ResponseFormat.JSON.etag("\"a-1\""));
+        assertEquals("\"a-1-cbor\"", ResponseFormat.CBOR.etag("\"a-1\""));
+        assertEquals("\"a-1-cbor\"", DatasetVersion.match("W/\"a-1-cbor\"", List.of("\"a-1-cbor\"")));
+        //a tag of another format does not match, and "*" is left to the controllers
+        assertNull(DatasetVersion.match("\"a-1-cbor\"", List.of("\"a-1\"")));
+        assertNull(DatasetVersion.match("*", List.of("\"a-1\"")));
+        assertTrue(DatasetVersion.matchesAny("*"));
+        assertFalse(DatasetVersion.matchesAny("\"a-1\""));
+    }
+
+    @Test
+    void testMappersEncodeTheSameDocument() throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        Map<ResponseFormat, ObjectMapper> mappers = ResponseFormat.mappers(json);
+        Map<String, Object> document = Map.of("swiftCode", "BANKPLPWXXX", "isHeadquarter", true);
+
+        for (ResponseFormat format : ResponseFormat.values()) {
+            ObjectMapper mapper = mappers.get(format);
+            assertEquals(json.valueToTree(document), mapper.readTree(mapper.writeValueAsBytes(document)), format.name());
+        }
+        assertNotEquals(json.writeValueAsBytes(document).length,
+                mappers.get(ResponseFormat.CBOR).writeValueAsBytes(document).length);
+    }
+}
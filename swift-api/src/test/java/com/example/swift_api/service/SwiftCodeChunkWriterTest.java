@@ -0,0 +1,57 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(SwiftCodeChunkWriter.class)
+@TestPropertySource(locations = "classpath:application-test.properties")
+class SwiftCodeChunkWriterTest {
+
+    @Autowired
+    private SwiftCodeChunkWriter chunkWriter;
+
+    @Autowired
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Test
+    void testWrite_InsertsNewAndUpdatesExistingRows(){
+        swiftCodeRepository.save(new SwiftCode("BANKPLPWXXX", "Old Name", "PL", "Poland", "Old St"));
+
+        chunkWriter.write(List.of(
+                new SwiftCode("BANKPLPWXXX", "New Name", "PL", "Poland", "New St"),
+                new SwiftCode("BANKPLPW001", "Branch", "PL", "Poland", "Branch St"),
+                new SwiftCode("BANKPLPW001", "Branch Renamed", "PL", "Poland", "Branch St")
+        ));
+
+        assertEquals(2, swiftCodeRepository.count());
+        assertEquals("New Name", swiftCodeRepository.findById("BANKPLPWXXX").orElseThrow().getBankName());
+        assertEquals("Branch Renamed", swiftCodeRepository.findById("BANKPLPW001").orElseThrow().getBankName());
+    }
+
+    @Test
+    void testLinkBranches_SetsHqOnBranchesWithPrefix(){
+        chunkWriter.write(List.of(
+                new SwiftCode("BANKPLPW001", "Branch 1", "PL", "Poland", "St 1"),
+                new SwiftCode("BANKPLPW002", "Branch 2", "PL", "Poland", "St 2"),
+                new SwiftCode("BANKPLPWXXX", "HQ", "PL", "Poland", "HQ St"),
+                new SwiftCode("OTHRPLPW001", "Other", "PL", "Poland", "St 3")
+        ));
+
+        chunkWriter.linkBranches(Map.of("BANKPLPW", "BANKPLPWXXX"));
+
+        assertEquals(2, swiftCodeRepository.findByHqSwiftCode("BANKPLPWXXX").size());
+        assertNull(swiftCodeRepository.findById("BANKPLPWXXX").orElseThrow().getHqSwiftCode());
+        assertNull(swiftCodeRepository.findById("OTHRPLPW001").orElseThrow().getHqSwiftCode());
+    }
+}
@@ -1,31 +1,53 @@
 package com.example.swift_api.service;
 
-import com.example.swift_api.repository.SwiftCodeRepository;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.example.swift_api.model.SwiftCode;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class SwiftCodeImportServiceTest {
+    private static final ExecutorService PIPELINE_EXECUTOR = Executors.newCachedThreadPool();
+
+    @Mock
+    private SwiftCodeChunkWriter chunkWriter;
+
+    @Mock
+    private DeltaImportSupport deltaSupport;
+
+    @Mock
+    private HeadquartersResolver headquartersResolver;
+
     @Mock
-    private SwiftCodeRepository swiftCodeRepository;
+    private ApplicationEventPublisher eventPublisher;
 
-    @InjectMocks
     private SwiftCodeImportService swiftCodeImportService;
 
+    @BeforeEach
+    void setup(){
+        swiftCodeImportService = newService(true, 1000);
+    }
+
     @Test
     void testImportSwiftCodes_Success() throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
@@ -55,7 +77,8 @@ public class SwiftCodeImportServiceTest {
 
         swiftCodeImportService.importSwiftCodes(mockFile);
 
-        verify(swiftCodeRepository, times(1)).saveAll(any(List.class));
+        verify(chunkWriter, times(1)).write(argThat(chunk ->
+                chunk.size() == 1 && chunk.get(0).getSwiftCode().equals("BANKUSXX")));
     }
 
     @Test
@@ -68,7 +91,7 @@ public class SwiftCodeImportServiceTest {
 
         System.out.println(exception.getMessage());
         assertTrue(exception.getMessage().contains("Uploaded file is empty"));
-        verify(swiftCodeRepository, never()).saveAll(any(List.class));
+        verify(chunkWriter, never()).write(any(List.class));
 
     }
 
@@ -99,6 +122,13 @@ public class SwiftCodeImportServiceTest {
         invalidRow.createCell(4).setCellValue("456 Bank St");
         invalidRow.createCell(6).setCellValue("United Kingdom");
 
+        var malformedRow = sheet.createRow(3);
+        malformedRow.createCell(0).setCellValue("QQ");
+        malformedRow.createCell(1).setCellValue("BANKQQPWXXX"); //no such country
+        malformedRow.createCell(3).setCellValue("QQ Bank");
+        malformedRow.createCell(4).setCellValue("789 Bank St");
+        malformedRow.createCell(6).setCellValue("Nowhere");
+
         workbook.write(out);
         workbook.close();
 
@@ -108,6 +138,270 @@ public class SwiftCodeImportServiceTest {
 
         swiftCodeImportService.importSwiftCodes(mockFile);
 
-        verify(swiftCodeRepository, times(1)).saveAll(any(List.class));
+        verify(chunkWriter, times(1)).write(any(List.class));
+    }
+
+    @Test
+    void testImportSwiftCodes_StreamingAndWorkbookModesMatch() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        var sheet = workbook.createSheet("SWIFT Codes");
+
+        var headerRow = sheet.createRow(0);
+        headerRow.createCell(1).setCellValue("SWIFT Code");
+
+        var hqRow = sheet.createRow(1);
+        hqRow.createCell(0).setCellValue("PL");
+        hqRow.createCell(1).setCellValue("BANKPLPWXXX");
+        hqRow.createCell(3).setCellValue("PL Bank");
+        hqRow.createCell(4).setCellValue("1 Main St");
+        hqRow.createCell(6).setCellValue("Poland");
+
+        var branchRow = sheet.createRow(3);
+        branchRow.createCell(0).setCellValue("PL");
+        branchRow.createCell(1).setCellValue("BANKPLPW123");
+        branchRow.createCell(3).setCellValue("PL Bank");
+        branchRow.createCell(6).setCellValue("Poland");
+
+        var blankCodeRow = sheet.createRow(4);
+        blankCodeRow.createCell(0).setCellValue("PL");
+        blankCodeRow.createCell(1).setCellValue("   ");
+
+        workbook.write(out);
+        workbook.close();
+
+        List<SwiftCode> streamed = importAndCapture(newService(true, 1000), out.toByteArray());
+        List<SwiftCode> loaded = importAndCapture(newService(false, 1000), out.toByteArray());
+
+        for (List<SwiftCode> codes : List.of(streamed, loaded)) {
+            assertEquals(2, codes.size());
+            assertEquals("BANKPLPWXXX", codes.get(0).getSwiftCode());
+            assertTrue(codes.get(0).isHeadquarter());
+            assertEquals("BANKPLPW123", codes.get(1).getSwiftCode());
+            assertEquals("BANKPLPWXXX", codes.get(1).getHqSwiftCode());
+            assertEquals("UNKNOWN ADDRESS", codes.get(1).getAddress());
+        }
+    }
+
+    @Test
+    void testImportSwiftCodes_WritesInChunksAndLinksLateHeadquarters() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        var sheet = workbook.createSheet("SWIFT Codes");
+        sheet.createRow(0).createCell(1).setCellValue("SWIFT Code");
+
+        String[] codes = {"BANKDEFF001", "BANKDEFF002", "BANKDEFFXXX", "OTHRDEFF001", "OTHRDEFF002"};
+        for (int i = 0; i < codes.length; i++) {
+            var row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue("DE");
+            row.createCell(1).setCellValue(codes[i]);
+        }
+
+        workbook.write(out);
+        workbook.close();
+
+        SwiftCodeImportService service = newService(true, 2);
+        List<SwiftCode> written = importAndCapture(service, out.toByteArray());
+
+        verify(chunkWriter, times(3)).write(any(List.class));
+        assertEquals(5, written.size());
+        assertNull(written.get(0).getHqSwiftCode());
+        verify(chunkWriter).linkBranches(Map.of("BANKDEFF", "BANKDEFFXXX"));
+    }
+
+    @Test
+    void testImportSwiftCodes_DeltaWritesOnlyChangedRows() throws IOException {
+        SwiftCode unchanged = new SwiftCode("SAMEPLPWXXX", "Same Bank", "PL", "POLAND", "1 Same St");
+        SwiftCode changed = new SwiftCode("MOVEPLPWXXX", "Move Bank", "PL", "POLAND", "New Address");
+        SwiftCode added = new SwiftCode("NEWWPLPWXXX", "New Bank", "PL", "POLAND", "1 New St");
+
+        Map<String, Long> existing = new HashMap<>();
+        existing.put("SAMEPLPWXXX", SwiftCodeHasher.hash(unchanged));
+        existing.put("MOVEPLPWXXX", SwiftCodeHasher.hash(
+                new SwiftCode("MOVEPLPWXXX", "Move Bank", "PL", "POLAND", "Old Address")));
+        existing.put("GONEPLPWXXX", 42L);
+        when(deltaSupport.loadContentHashes()).thenReturn(existing);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        var sheet = workbook.createSheet("SWIFT Codes");
+        sheet.createRow(0).createCell(1).setCellValue("SWIFT Code");
+        List<SwiftCode> rows = List.of(unchanged, changed, added);
+        for (int i = 0; i < rows.size(); i++) {
+            var row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue(rows.get(i).getCountryISO2());
+            row.createCell(1).setCellValue(rows.get(i).getSwiftCode());
+            row.createCell(3).setCellValue(rows.get(i).getBankName());
+            row.createCell(4).setCellValue(rows.get(i).getAddress());
+            row.createCell(6).setCellValue(rows.get(i).getCountryName());
+        }
+        workbook.write(out);
+        workbook.close();
+
+        List<SwiftCode> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(chunkWriter).write(any(List.class));
+
+        ImportOptions options = new ImportOptions();
+        options.setMode(ImportMode.DELTA);
+        options.setDeleteMissing(true);
+        ImportProgress summary = swiftCodeImportService.importSwiftCodes(new MockMultipartFile("file", "delta.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", out.toByteArray()), options);
+
+        assertEquals(List.of("MOVEPLPWXXX", "NEWWPLPWXXX"), written.stream().map(SwiftCode::getSwiftCode).toList());
+        assertEquals(1, summary.getRowsInserted());
+        assertEquals(1, summary.getRowsUpdated());
+        assertEquals(1, summary.getRowsUnchanged());
+        assertEquals(1, summary.getRowsDeleted());
+        verify(deltaSupport).deleteCodes(Set.of("GONEPLPWXXX"), 1000);
+    }
+
+    @Test
+    void testImportSwiftCodes_DeltaKeepsCodesOfSkippedRowsAndCountsRepeatsOnce() throws IOException {
+        SwiftCode kept = new SwiftCode("KEEPPLPWXXX", "Keep Bank", "PL", "POLAND", "1 Keep St");
+        Map<String, Long> existing = new HashMap<>();
+        existing.put("KEEPPLPWXXX", SwiftCodeHasher.hash(kept));
+        //stored before codes were validated
+        existing.put("LEGACY1", 1L);
+        existing.put("GONEPLPWXXX", 2L);
+        when(deltaSupport.loadContentHashes()).thenReturn(existing);
+        String csv = "ISO2,SWIFT CODE,TYPE,NAME,ADDRESS,TOWN,COUNTRY\n" +
+                "PL,keepplpwxxx,BIC11,Keep Bank,1 Keep St,WARSZAWA,POLAND\n" +
+                "PL,LEGACY1,BIC11,Legacy Bank,2 Old St,WARSZAWA,POLAND\n" +
+                "PL,NEWWPLPWXXX,BIC11,New Bank,1 New St,WARSZAWA,POLAND\n" +
+                "PL,NEWWPLPWXXX,BIC11,New Bank,1 New St,WARSZAWA,POLAND\n" +
+                "PL,NEWWPLPWXXX,BIC11,New Bank,2 New St,WARSZAWA,POLAND\n" +
+                ",,,,,,\n";
+        List<SwiftCode> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(chunkWriter).write(any(List.class));
+
+        ImportOptions options = new ImportOptions();
+        options.setMode(ImportMode.DELTA);
+        options.setDeleteMissing(true);
+        ImportProgress summary = swiftCodeImportService.importSwiftCodes(
+                new MockMultipartFile("file", "delta.csv", "text/csv", csv.getBytes()), options);
+
+        //the first and the last, differing row of the repeated code
+        assertEquals(List.of("1 New St", "2 New St"), written.stream().map(SwiftCode::getAddress).toList());
+        assertEquals(1, summary.getRowsInserted());
+        assertEquals(1, summary.getRowsDeleted());
+        verify(deltaSupport).deleteCodes(Set.of("GONEPLPWXXX"), 1000);
+    }
+
+    @Test
+    void testImportSwiftCodes_DeltaDeletesNothingAfterRowWithoutCode() throws IOException {
+        Map<String, Long> existing = new HashMap<>();
+        existing.put("GONEPLPWXXX", 2L);
+        when(deltaSupport.loadContentHashes()).thenReturn(existing);
+        String csv = "ISO2,SWIFT CODE,TYPE,NAME,ADDRESS,TOWN,COUNTRY\n" +
+                "PL,NEWWPLPWXXX,BIC11,New Bank,1 New St,WARSZAWA,POLAND\n" +
+                "PL,,BIC11,Gone Bank,1 Gone St,WARSZAWA,POLAND\n";
+
+        ImportOptions options = new ImportOptions();
+        options.setMode(ImportMode.DELTA);
+        options.setDeleteMissing(true);
+        ImportProgress summary = swiftCodeImportService.importSwiftCodes(
+                new MockMultipartFile("file", "delta.csv", "text/csv", csv.getBytes()), options);
+
+        assertEquals(0, summary.getRowsDeleted());
+        verify(deltaSupport, never()).deleteCodes(anyCollection(), anyInt());
+    }
+
+    @Test
+    void testImportSwiftCodes_PipelinedMatchesSequential() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        var sheet = workbook.createSheet("SWIFT Codes");
+        sheet.createRow(0).createCell(1).setCellValue("SWIFT Code");
+        for (int i = 1; i <= 1200; i++) {
+            var row = sheet.createRow(i);
+            row.createCell(0).setCellValue("DE");
+            //each bank has one HQ and two branches, the HQ row comes last
+            String prefix = String.format("B%03dDEFF", (i - 1) / 3);
+            row.createCell(1).setCellValue(prefix + (i % 3 == 0 ? "XXX" : "00" + i % 3));
+        }
+        workbook.write(out);
+        workbook.close();
+
+        List<SwiftCode> sequential = importAndCapture(newService(true, 100), out.toByteArray());
+        List<SwiftCode> pipelined = importAndCapture(newService(true, 100, true), out.toByteArray());
+
+        assertEquals(1200, pipelined.size());
+        assertEquals(sequential.stream().map(SwiftCode::getSwiftCode).sorted().toList(),
+                pipelined.stream().map(SwiftCode::getSwiftCode).sorted().toList());
+        verify(chunkWriter, atLeast(12)).write(any(List.class));
+        verify(chunkWriter).linkBranches(argThat(links -> links.size() == 400
+                && "B000DEFFXXX".equals(links.get("B000DEFF"))));
+    }
+
+    @Test
+    void testImportSwiftCodes_LinksBranchesToHeadquartersInDatabase() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        var sheet = workbook.createSheet("SWIFT Codes");
+        sheet.createRow(0).createCell(1).setCellValue("SWIFT Code");
+        String[] codes = {"BANKDEFF001", "OTHRDEFF001", "BANKDEFF002", "NEWWDEFFXXX", "NEWWDEFF001"};
+        for (int i = 0; i < codes.length; i++) {
+            var row = sheet.createRow(i + 1);
+            row.createCell(0).setCellValue("DE");
+            row.createCell(1).setCellValue(codes[i]);
+        }
+        workbook.write(out);
+        workbook.close();
+
+        when(headquartersResolver.findHeadquarters(any()))
+                .thenAnswer(invocation -> ((Set<String>) invocation.getArgument(0)).contains("BANKDEFF")
+                        ? Map.of("BANKDEFF", "BANKDEFFXXX") : Map.of());
+
+        List<SwiftCode> written = importAndCapture(newService(true, 2), out.toByteArray());
+
+        assertEquals("BANKDEFFXXX", written.get(0).getHqSwiftCode());
+        assertNull(written.get(1).getHqSwiftCode());
+        assertEquals("BANKDEFFXXX", written.get(2).getHqSwiftCode());
+        assertEquals("NEWWDEFFXXX", written.get(4).getHqSwiftCode());
+        //one lookup per chunk, and only for prefixes not resolved yet
+        verify(headquartersResolver).findHeadquarters(Set.of("BANKDEFF", "OTHRDEFF"));
+        verify(headquartersResolver, times(1)).findHeadquarters(any());
+    }
+
+    @Test
+    void testImportSwiftCodes_CsvMatchesExcel() throws IOException {
+        String csv = "COUNTRY ISO2 CODE,SWIFT CODE,CODE TYPE,NAME,ADDRESS,TOWN NAME,COUNTRY NAME\n" +
+                "PL,BANKPLPWXXX,BIC11,PL Bank,1 Main St,WARSZAWA,Poland\n" +
+                "PL,BANKPLPW123,BIC11,PL Bank,,WARSZAWA,Poland\n" +
+                "PL,   ,BIC11,,,,\n";
+
+        List<SwiftCode> codes = importAndCapture(newService(true, 1000), csv.getBytes(), "swift_codes.csv");
+
+        assertEquals(2, codes.size());
+        assertEquals("BANKPLPWXXX", codes.get(0).getSwiftCode());
+        assertTrue(codes.get(0).isHeadquarter());
+        assertEquals("1 Main St", codes.get(0).getAddress());
+        assertEquals("BANKPLPW123", codes.get(1).getSwiftCode());
+        assertEquals("BANKPLPWXXX", codes.get(1).getHqSwiftCode());
+        assertEquals("UNKNOWN ADDRESS", codes.get(1).getAddress());
+    }
+
+    private SwiftCodeImportService newService(boolean streaming, int chunkSize) {
+        return newService(streaming, chunkSize, false);
+    }
+
+    private SwiftCodeImportService newService(boolean streaming, int chunkSize, boolean pipelined) {
+        return new SwiftCodeImportService(List.of(new JpaImportEngine(chunkWriter)), chunkWriter, deltaSupport,
+                headquartersResolver, new ImportPipeline(2, 2, 4, PIPELINE_EXECUTOR), eventPublisher, streaming, chunkSize, ImportEngineType.JPA, pipelined);
+    }
+
+    private List<SwiftCode> importAndCapture(SwiftCodeImportService service, byte[] content) {
+        return importAndCapture(service, content, "swift_codes.xlsx");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SwiftCode> importAndCapture(SwiftCodeImportService service, byte[] content, String fileName) {
+        reset(chunkWriter);
+        List<SwiftCode> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(chunkWriter).write(any(List.class));
+
+        service.importSwiftCodes(new MockMultipartFile("file", fileName,
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", content));
+        return written;
     }
 }
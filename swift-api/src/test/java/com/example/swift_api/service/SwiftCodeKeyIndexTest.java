@@ -0,0 +1,42 @@
+package com.example.swift_api.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SwiftCodeKeyIndexTest {
+
+    @Test
+    void testEveryKeyFindsItsOffset() {
+        long[] keys = new long[10_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = BicCodec.encode(String.format("B%03dPLPW%03d", i / 100, i % 100));
+        }
+        SwiftCodeKeyIndex index = new SwiftCodeKeyIndex(keys);
+
+        assertEquals(keys.length, index.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals(i, index.offsetOf(keys[i]));
+        }
+        assertEquals(SwiftCodeKeyIndex.ABSENT, index.offsetOf(BicCodec.encode("B100PLPW000")));
+        assertEquals(SwiftCodeKeyIndex.ABSENT, index.offsetOf(BicCodec.encode("B000PLPW")));
+    }
+
+    @Test
+    void testInvalidKeysAreLeftOut() {
+        long hq = BicCodec.encode("BANKPLPWXXX");
+        SwiftCodeKeyIndex index = new SwiftCodeKeyIndex(new long[]{BicCodec.INVALID, hq, BicCodec.encode("bankplpw")});
+
+        assertEquals(1, index.size());
+        assertEquals(1, index.offsetOf(hq));
+        assertEquals(SwiftCodeKeyIndex.ABSENT, index.offsetOf(BicCodec.INVALID));
+        assertEquals(SwiftCodeKeyIndex.ABSENT, index.offsetOf(0));
+    }
+
+    @Test
+    void testEmptyIndex() {
+        SwiftCodeKeyIndex index = new SwiftCodeKeyIndex(new long[0]);
+        assertEquals(0, index.size());
+        assertEquals(SwiftCodeKeyIndex.ABSENT, index.offsetOf(BicCodec.encode("BANKPLPWXXX")));
+    }
+}
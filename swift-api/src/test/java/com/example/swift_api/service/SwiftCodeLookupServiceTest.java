@@ -0,0 +1,188 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SwiftCodeLookupServiceTest {
+
+    @Mock
+    private SwiftCodeRepository swiftCodeRepository;
+
+    private final SwiftCode hq = new SwiftCode("BANKPLPWXXX", "Bank", "PL", "POLAND", "1 Main St");
+    private final SwiftCode branch = new SwiftCode("BANKPLPW001", "Bank", "PL", "POLAND", "2 Main St");
+
+    @Test
+    void testFindDetails_CachesHeadquartersWithBranches() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        //one query returns the headquarters with its branches
+        when(swiftCodeRepository.findWithBranches("BANKPLPWXXX")).thenReturn(List.of(branch, hq));
+
+        SwiftCodeDetails first = lookupService.findDetails("BANKPLPWXXX").orElseThrow();
+        SwiftCodeDetails second = lookupService.findDetails("BANKPLPWXXX").orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(List.of(branch), second.getBranches());
+        assertSame(hq, second.getSwiftCode());
+        verify(swiftCodeRepository, times(1)).findWithBranches("BANKPLPWXXX");
+
+        LookupCacheStats stats = lookupService.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(2, stats.getWeight());
+    }
+
+    @Test
+    void testFindDetails_CachesUnknownCodes() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        when(swiftCodeRepository.findWithBranches("UNKNOWN1XXX")).thenReturn(List.of());
+
+        assertTrue(lookupService.findDetails("UNKNOWN1XXX").isEmpty());
+        assertTrue(lookupService.findDetails("UNKNOWN1XXX").isEmpty());
+
+        verify(swiftCodeRepository, times(1)).findWithBranches("UNKNOWN1XXX");
+    }
+
+    @Test
+    void testOnSwiftCodesChanged_BranchChangeDropsItsHeadquarters() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        SwiftCode other = new SwiftCode("OTHRPLPWXXX", "Other", "PL", "POLAND", "3 Main St");
+        when(swiftCodeRepository.findWithBranches(anyString())).thenAnswer(invocation ->
+                switch ((String) invocation.getArgument(0)) {
+                    case "BANKPLPWXXX" -> List.of(hq);
+                    case "OTHRPLPWXXX" -> List.of(other);
+                    default -> List.of();
+                });
+        lookupService.findDetails("BANKPLPWXXX");
+        lookupService.findDetails("BANKPLPW002");
+        lookupService.findDetails("OTHRPLPWXXX");
+
+        //a branch added to BANKPLPW, it was cached as unknown before
+        lookupService.onSwiftCodesChanged(SwiftCodesChangedEvent.of("BANKPLPW002"));
+        lookupService.findDetails("BANKPLPWXXX");
+        lookupService.findDetails("BANKPLPW002");
+        lookupService.findDetails("OTHRPLPWXXX");
+
+        verify(swiftCodeRepository, times(2)).findWithBranches("BANKPLPWXXX");
+        verify(swiftCodeRepository, times(2)).findWithBranches("BANKPLPW002");
+        verify(swiftCodeRepository, times(1)).findWithBranches("OTHRPLPWXXX");
+    }
+
+    @Test
+    void testFindAllDetails_LoadsMissingCodesTogether() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        branch.setHqSwiftCode("BANKPLPWXXX");
+        SwiftCode other = new SwiftCode("OTHRPLPW001", "Other", "PL", "POLAND", "3 Main St");
+        //the branch is requested too, so it comes once as a code and once as a branch
+        when(swiftCodeRepository.findAllWithBranches(anyCollection())).thenReturn(List.of(hq, other, branch, branch));
+
+        Map<String, SwiftCodeDetails> first = lookupService.findAllDetails(
+                List.of("BANKPLPWXXX", "OTHRPLPW001", "BANKPLPW001", "UNKNOWN1XXX"));
+        Map<String, SwiftCodeDetails> second = lookupService.findAllDetails(List.of("BANKPLPWXXX", "UNKNOWN1XXX"));
+
+        assertEquals(Set.of("BANKPLPWXXX", "OTHRPLPW001", "BANKPLPW001"), first.keySet());
+        assertEquals(List.of(branch), first.get("BANKPLPWXXX").getBranches());
+        assertTrue(first.get("OTHRPLPW001").getBranches().isEmpty());
+        //the second batch, known and unknown codes alike, is answered from the cache
+        assertSame(first.get("BANKPLPWXXX"), second.get("BANKPLPWXXX"));
+        verify(swiftCodeRepository, times(1)).findAllWithBranches(anyCollection());
+        verify(swiftCodeRepository, never()).findWithBranches(anyString());
+    }
+
+    @Test
+    void testOnSwiftCodesChanged_BulkChangeDropsEverything() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        when(swiftCodeRepository.findWithBranches("BANKPLPW001")).thenReturn(List.of(branch));
+        lookupService.findDetails("BANKPLPW001");
+
+        lookupService.onSwiftCodesChanged(SwiftCodesChangedEvent.bulk());
+        lookupService.findDetails("BANKPLPW001");
+
+        verify(swiftCodeRepository, times(2)).findWithBranches("BANKPLPW001");
+    }
+
+    @Test
+    void testFindDetails_LoadRacingABulkChangeIsNotKept() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        SwiftCode renamed = new SwiftCode("BANKPLPW001", "Renamed", "PL", "POLAND", "2 Main St");
+        //the import commits while the first lookup is still loading what it read before
+        when(swiftCodeRepository.findWithBranches("BANKPLPW001")).thenAnswer(invocation -> {
+            lookupService.onSwiftCodesChanged(SwiftCodesChangedEvent.bulk());
+            return List.of(branch);
+        }).thenReturn(List.of(renamed));
+
+        //the lookup sees that its entry is older than the change and loads again
+        assertSame(renamed, lookupService.findDetails("BANKPLPW001").orElseThrow().getSwiftCode());
+        assertSame(renamed, lookupService.findDetails("BANKPLPW001").orElseThrow().getSwiftCode());
+        verify(swiftCodeRepository, times(2)).findWithBranches("BANKPLPW001");
+    }
+
+    @Test
+    void testFindAllDetails_LoadRacingAChangeIsNotKept() {
+        SwiftCodeLookupService lookupService = newService(1000);
+        SwiftCode renamed = new SwiftCode("BANKPLPW001", "Renamed", "PL", "POLAND", "2 Main St");
+        when(swiftCodeRepository.findAllWithBranches(anyCollection())).thenAnswer(invocation -> {
+            lookupService.onSwiftCodesChanged(SwiftCodesChangedEvent.of("BANKPLPW001"));
+            return List.of(branch);
+        }).thenReturn(List.of(renamed));
+
+        assertSame(branch, lookupService.findAllDetails(List.of("BANKPLPW001")).get("BANKPLPW001").getSwiftCode());
+        assertSame(renamed, lookupService.findAllDetails(List.of("BANKPLPW001")).get("BANKPLPW001").getSwiftCode());
+        assertSame(renamed, lookupService.findAllDetails(List.of("BANKPLPW001")).get("BANKPLPW001").getSwiftCode());
+        verify(swiftCodeRepository, times(2)).findAllWithBranches(anyCollection());
+    }
+
+    @Test
+    void testFindDetails_EvictsByWeight() {
+        SwiftCodeLookupService lookupService = newService(50);
+        List<SwiftCode> branches = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            branches.add(new SwiftCode(String.format("BANKPLPW%03d", i), "Bank", "PL", "POLAND", "Branch St"));
+        }
+        when(swiftCodeRepository.findWithBranches(anyString())).thenAnswer(invocation -> {
+            List<SwiftCode> rows = new ArrayList<>(branches);
+            rows.add(new SwiftCode(invocation.getArgument(0), "Bank", "PL", "POLAND", "1 Main St"));
+            return rows;
+        });
+
+        lookupService.findDetails("BANKPLPWXXX");
+        lookupService.findDetails("OTHRPLPWXXX");
+        lookupService.findDetails("THRDPLPWXXX");
+
+        LookupCacheStats stats = lookupService.getStats();
+        assertTrue(stats.getWeight() <= 50);
+        assertTrue(stats.getEvictionCount() >= 2);
+        assertTrue(stats.getEvictionWeight() >= 82);
+    }
+
+    @Test
+    void testFindDetails_Disabled() {
+        SwiftCodeLookupService lookupService = new SwiftCodeLookupService(swiftCodeRepository,
+                new SwiftCodeSnapshotService(swiftCodeRepository, false), false, 0, Duration.ZERO);
+        when(swiftCodeRepository.findWithBranches("BANKPLPW001")).thenReturn(List.of(branch));
+
+        lookupService.findDetails("BANKPLPW001");
+        lookupService.findDetails("BANKPLPW001");
+
+        verify(swiftCodeRepository, times(2)).findWithBranches("BANKPLPW001");
+        assertFalse(lookupService.getStats().isEnabled());
+    }
+
+    private SwiftCodeLookupService newService(long maxWeight) {
+        return new SwiftCodeLookupService(swiftCodeRepository,
+                new SwiftCodeSnapshotService(swiftCodeRepository, false), true, maxWeight, Duration.ofMinutes(10));
+    }
+}
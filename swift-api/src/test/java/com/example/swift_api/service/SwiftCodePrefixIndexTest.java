@@ -0,0 +1,74 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SwiftCodePrefixIndexTest {
+
+    @Mock
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Test
+    void testSearch_ReturnsMatchesInOrderUpToLimit() {
+        when(swiftCodeRepository.findAllSwiftCodes()).thenReturn(
+                List.of("BNPAFRPP001", "BNPAFRPPXXX", "BNPAFRPQXXX", "DEUTDEFF500", "DEUTDEFFXXX", "DEUTDEMMXXX"));
+        SwiftCodePrefixIndex index = new SwiftCodePrefixIndex(swiftCodeRepository);
+        index.load();
+
+        assertEquals(List.of("DEUTDEFF500", "DEUTDEFFXXX", "DEUTDEMMXXX"), index.search("deutde", 10));
+        assertEquals(List.of("BNPAFRPP001", "BNPAFRPPXXX"), index.search("BNPAFRPP", 10));
+        assertEquals(List.of("BNPAFRPP001"), index.search("B", 1));
+        assertTrue(index.search("ZZZZ", 10).isEmpty());
+        assertTrue(index.search("DEUTDEFFXXXX", 10).isEmpty());
+    }
+
+    @Test
+    void testSearch_DoesNotDependOnDatabaseCollation() {
+        //a case-insensitive collation puts the lower case code stored before validation between the others
+        when(swiftCodeRepository.findAllSwiftCodes()).thenReturn(
+                List.of("AAAAPLPWXXX", "bbbbplpwxxx", "CCCCPLPWXXX", "DDDDPLPWXXX"));
+        SwiftCodePrefixIndex index = new SwiftCodePrefixIndex(swiftCodeRepository);
+        index.load();
+
+        assertEquals(List.of("CCCCPLPWXXX"), index.search("CCCC", 10));
+        assertEquals(List.of("DDDDPLPWXXX"), index.search("DDDD", 10));
+        assertEquals(List.of("AAAAPLPWXXX"), index.search("AAAA", 10));
+    }
+
+    @Test
+    void testOnSwiftCodesChanged_InsertsAndRemovesCodes() {
+        when(swiftCodeRepository.findAllSwiftCodes()).thenReturn(List.of("BANKPLPW001", "BANKPLPWXXX"));
+        SwiftCodePrefixIndex index = new SwiftCodePrefixIndex(swiftCodeRepository);
+        index.load();
+
+        //BANKPLPW002 was added, BANKPLPW001 deleted
+        when(swiftCodeRepository.findAllById(List.of("BANKPLPW002", "BANKPLPW001")))
+                .thenReturn(List.of(new SwiftCode("BANKPLPW002", "Bank", "PL", "POLAND", "2 Main St")));
+        index.onSwiftCodesChanged(SwiftCodesChangedEvent.of("BANKPLPW002", "BANKPLPW001"));
+
+        assertEquals(List.of("BANKPLPW002", "BANKPLPWXXX"), index.search("BANKPLPW", 10));
+        verify(swiftCodeRepository, times(1)).findAllSwiftCodes();
+    }
+
+    @Test
+    void testOnSwiftCodesChanged_BulkChangeReloads() {
+        when(swiftCodeRepository.findAllSwiftCodes()).thenReturn(List.of("BANKPLPWXXX"), List.of("BANKPLPWXXX", "NEWWPLPWXXX"));
+        SwiftCodePrefixIndex index = new SwiftCodePrefixIndex(swiftCodeRepository);
+        index.load();
+
+        index.onSwiftCodesChanged(SwiftCodesChangedEvent.bulk());
+
+        assertEquals(2, index.size());
+        assertEquals(List.of("NEWWPLPWXXX"), index.search("NEWW", 10));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SwiftCodeSnapshotServiceTest {
+
+    @Mock
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Test
+    void testLoad_ServesLookupsFromMemory() {
+        SwiftCode hq = code("BANKPLPWXXX", "PL", null);
+        SwiftCode branch = code("BANKPLPW001", "PL", "BANKPLPWXXX");
+        SwiftCode other = code("OTHRDEFFXXX", "DE", null);
+        when(swiftCodeRepository.findAll()).thenReturn(List.of(branch, hq, other));
+        SwiftCodeSnapshotService snapshotService = new SwiftCodeSnapshotService(swiftCodeRepository, true);
+
+        snapshotService.load();
+        SwiftCodeSnapshot snapshot = snapshotService.current().orElseThrow();
+
+        assertEquals(List.of(branch), snapshot.findDetails("BANKPLPWXXX").orElseThrow().getBranches());
+        assertTrue(snapshot.findDetails("BANKPLPW001").orElseThrow().getBranches().isEmpty());
+        assertTrue(snapshot.findDetails("UNKNOWNXXXX").isEmpty());
+        assertEquals(List.of(hq, branch).stream().map(SwiftCode::getSwiftCode).sorted().toList(),
+                snapshot.findByCountry("pl").stream().map(SwiftCode::getSwiftCode).toList());
+        assertTrue(snapshot.findByCountry("FR").isEmpty());
+        assertEquals(List.of(branch), snapshot.findCountryPage("PL", "", 1));
+        assertEquals(List.of(hq), snapshot.findCountryPage("PL", "BANKPLPW001", 5));
+        assertTrue(snapshot.findCountryPage("PL", "BANKPLPWXXX", 5).isEmpty());
+    }
+
+    @Test
+    void testOnSwiftCodesChanged_SwapsInUpdatedSnapshot() {
+        SwiftCode hq = code("BANKPLPWXXX", "PL", null);
+        SwiftCode branch = code("BANKPLPW001", "PL", "BANKPLPWXXX");
+        SwiftCode orphan = code("NEWWPLPW001", "PL", null);
+        when(swiftCodeRepository.findAll()).thenReturn(List.of(hq, branch, orphan));
+        SwiftCodeSnapshotService snapshotService = new SwiftCodeSnapshotService(swiftCodeRepository, true);
+        snapshotService.load();
+        SwiftCodeSnapshot before = snapshotService.current().orElseThrow();
+
+        //a new headquarters that the orphaned branch got linked to, and a deleted branch
+        SwiftCode newHq = code("NEWWPLPWXXX", "PL", null);
+        SwiftCode linked = code("NEWWPLPW001", "PL", "NEWWPLPWXXX");
+        when(swiftCodeRepository.findAllById(List.of("NEWWPLPWXXX", "BANKPLPW001"))).thenReturn(List.of(newHq));
+        when(swiftCodeRepository.findByHqSwiftCode("NEWWPLPWXXX")).thenReturn(List.of(linked));
+        snapshotService.onSwiftCodesChanged(SwiftCodesChangedEvent.of("NEWWPLPWXXX", "BANKPLPW001"));
+        SwiftCodeSnapshot after = snapshotService.current().orElseThrow();
+
+        assertNotSame(before, after);
+        assertEquals(List.of(linked), after.findDetails("NEWWPLPWXXX").orElseThrow().getBranches());
+        assertTrue(after.findDetails("BANKPLPW001").isEmpty());
+        assertTrue(after.findDetails("BANKPLPWXXX").orElseThrow().getBranches().isEmpty());
+        //the old snapshot is untouched
+        assertEquals(List.of(branch), before.findDetails("BANKPLPWXXX").orElseThrow().getBranches());
+        assertTrue(before.findDetails("NEWWPLPWXXX").isEmpty());
+        verify(swiftCodeRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testOnSwiftCodesChanged_ImportReloadsEverything() {
+        when(swiftCodeRepository.findAll()).thenReturn(List.of())
+                .thenReturn(List.of(code("BANKPLPWXXX", "PL", null)));
+        SwiftCodeSnapshotService snapshotService = new SwiftCodeSnapshotService(swiftCodeRepository, true);
+        snapshotService.load();
+
+        snapshotService.onSwiftCodesChanged(SwiftCodesChangedEvent.bulk());
+
+        assertEquals(1, snapshotService.current().orElseThrow().size());
+    }
+
+    @Test
+    void testDisabled() {
+        SwiftCodeSnapshotService snapshotService = new SwiftCodeSnapshotService(swiftCodeRepository, false);
+
+        snapshotService.load();
+        snapshotService.onSwiftCodesChanged(SwiftCodesChangedEvent.bulk());
+
+        assertTrue(snapshotService.current().isEmpty());
+        verifyNoInteractions(swiftCodeRepository);
+    }
+
+    private static SwiftCode code(String swiftCode, String countryISO2, String hqSwiftCode) {
+        SwiftCode code = new SwiftCode(swiftCode, "Bank", countryISO2, "Country", "Street");
+        code.setHqSwiftCode(hqSwiftCode);
+        return code;
+    }
+}
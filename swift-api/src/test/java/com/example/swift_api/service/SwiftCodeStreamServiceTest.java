@@ -0,0 +1,60 @@
+package com.example.swift_api.service;
+
+import com.example.swift_api.model.SwiftCode;
+import com.example.swift_api.repository.SwiftCodeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SwiftCodeStreamServiceTest {
+
+    @Mock
+    private SwiftCodeRepository swiftCodeRepository;
+
+    @Test
+    void testForEachCode_ReadsPagesAfterTheLastCode() throws Exception {
+        List<SwiftCode> rows = IntStream.range(0, SwiftCodeStreamService.CHUNK_SIZE + 2)
+                .mapToObj(i -> new SwiftCode(String.format("BANK%05dXXX", i), "Bank", "PL", "POLAND", "Street"))
+                .toList();
+        List<SwiftCode> firstPage = rows.subList(0, SwiftCodeStreamService.CHUNK_SIZE);
+        String lastOfFirstPage = firstPage.get(firstPage.size() - 1).getSwiftCode();
+        when(swiftCodeRepository.findPage(eq(""), any(Limit.class))).thenReturn(firstPage);
+        when(swiftCodeRepository.findPage(eq(lastOfFirstPage), any(Limit.class)))
+                .thenReturn(rows.subList(SwiftCodeStreamService.CHUNK_SIZE, rows.size()));
+        SwiftCodeStreamService streamService =
+                new SwiftCodeStreamService(swiftCodeRepository, new SwiftCodeSnapshotService(swiftCodeRepository, false));
+
+        List<SwiftCode> streamed = new ArrayList<>();
+        streamService.forEachCode(streamed::add);
+
+        assertEquals(rows, streamed);
+        //the short page is the last one
+        verify(swiftCodeRepository, times(2)).findPage(anyString(), any(Limit.class));
+    }
+
+    @Test
+    void testForEachInCountry_EmptyCountryReadsOnePage() throws Exception {
+        when(swiftCodeRepository.findCountryPage(eq("pl"), eq(""), any(Limit.class))).thenReturn(List.of());
+        SwiftCodeStreamService streamService =
+                new SwiftCodeStreamService(swiftCodeRepository, new SwiftCodeSnapshotService(swiftCodeRepository, false));
+
+        List<SwiftCode> streamed = new ArrayList<>();
+        streamService.forEachInCountry("pl", streamed::add);
+
+        assertTrue(streamed.isEmpty());
+        verify(swiftCodeRepository, times(1)).findCountryPage(anyString(), anyString(), any(Limit.class));
+    }
+}